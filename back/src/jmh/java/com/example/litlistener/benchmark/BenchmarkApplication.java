@@ -0,0 +1,48 @@
+package com.example.litlistener.benchmark;
+
+import com.example.litlistener.LitListenerApplication;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application for a benchmark: an in-memory H2 database in MySQL
+ * mode, temporary folders, no web server, and the watcher and Whisper off.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(Path audioFolder, Path workDir, String... extraArgs) {
+        // DevTools would otherwise restart the application by calling main again
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // Passed as arguments so they take precedence over application.properties
+        List<String> args = new ArrayList<>(List.of("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--audio.folder=" + audioFolder,
+                "--audio.cache.dir=" + workDir.resolve("renditions"),
+                "--audio.cache.max-size-mb=256",
+                "--audio.waveform.dir=" + workDir.resolve("waveforms"),
+                "--audio.watch.enabled=false",
+                "--audio.whisper.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.litlistener=WARN",
+                "--logging.level.org.hibernate.orm.deprecation=ERROR"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(LitListenerApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run(args.toArray(String[]::new));
+    }
+}
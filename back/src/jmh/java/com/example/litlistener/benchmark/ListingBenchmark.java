@@ -0,0 +1,94 @@
+package com.example.litlistener.benchmark;
+
+import com.example.litlistener.entity.AudioFile;
+import com.example.litlistener.response.AudioFileSummaryResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of a listing page: full AudioFile entities, as
+ * GET /api/audio returns them, against the slim summaries of the paged
+ * listing. Transcripts are generated text of a typical length.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ListingBenchmark {
+
+    private static final String[] WORDS = ("the radio tower reports contact north of the river at dawn "
+            + "weather clear wind light units moving toward the bridge over").split(" ");
+
+    @Param({"50", "1000"})
+    public int pageSize;
+
+    // Configured like the ObjectMapper Spring MVC uses
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<AudioFile> entities;
+    private List<AudioFileSummaryResponse> summaries;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        entities = new ArrayList<>();
+        summaries = new ArrayList<>();
+        for (long id = 1; id <= pageSize; id++) {
+            String name = String.format("recording-%06d.mp3", id);
+            AudioFile audioFile = new AudioFile(name, "/app/audio/" + name);
+            audioFile.setId(id);
+            audioFile.setTag(id % 3 == 0 ? "Radio" : "Field");
+            audioFile.setField("North");
+            audioFile.setFromField("0:00");
+            audioFile.setToField("1:30");
+            audioFile.setTranscript(text(random, 250));
+            audioFile.setWhisper(text(random, 250));
+            audioFile.setFileSize(2_500_000L);
+            audioFile.setLastModified(1_700_000_000_000L);
+            audioFile.setDurationMs(90_000L);
+            audioFile.setSampleRate(44100);
+            audioFile.setChannels(2);
+            audioFile.setBitRate(192000);
+            entities.add(audioFile);
+            summaries.add(new AudioFileSummaryResponse(id, name, audioFile.getTag(), audioFile.getField(), true,
+                    90_000L, 44100, 2, 192000));
+        }
+    }
+
+    @Benchmark
+    public byte[] entities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entities);
+    }
+
+    @Benchmark
+    public byte[] summaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+
+    private static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.toString().trim();
+    }
+}
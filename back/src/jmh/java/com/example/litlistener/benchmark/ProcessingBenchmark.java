@@ -0,0 +1,98 @@
+package com.example.litlistener.benchmark;
+
+import com.example.litlistener.request.AudioProcessingRequest;
+import com.example.litlistener.service.AudioProcessingService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AudioProcessingService.processAudio on a generated tone: building the
+ * filter chain, a full render (each invocation asks for a slightly different
+ * volume, so the rendition cache never answers), and a rendition cache hit.
+ * The render needs ffmpeg and ffprobe on the PATH.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ProcessingBenchmark {
+
+    @Param({"ffmpeg", "jvm"})
+    public String engine;
+
+    @Param({"30"})
+    public int seconds;
+
+    private Path workDir;
+    private Path source;
+    private ConfigurableApplicationContext context;
+    private AudioProcessingService audioProcessingService;
+    private double amplification = 1.5;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("litlistener-bench");
+        Path audioFolder = Files.createDirectories(workDir.resolve("audio"));
+        source = audioFolder.resolve("tone.wav");
+        Files.write(source, TestAudio.sineWav(seconds, 44100, 2, 440));
+        context = BenchmarkApplication.start(audioFolder, workDir);
+        audioProcessingService = context.getBean(AudioProcessingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(workDir);
+    }
+
+    @Benchmark
+    public List<String> buildFilterChain() throws IOException {
+        return audioProcessingService.buildFilterChain(request(1.5), source);
+    }
+
+    @Benchmark
+    public String processUncached() throws Exception {
+        amplification += 1e-6;
+        return audioProcessingService.processAudio(request(amplification));
+    }
+
+    @Benchmark
+    public String processCached() throws Exception {
+        return audioProcessingService.processAudio(request(1.5));
+    }
+
+    private AudioProcessingRequest request(double amplificationFactor) {
+        AudioProcessingRequest request = new AudioProcessingRequest();
+        request.setFilePath(source.toString());
+        request.setEngine(engine);
+        request.setPitchFactor(1.2);
+        request.setAmplificationFactor(amplificationFactor);
+        request.setCompressionThreshold(-20);
+        request.setCompressionRatio(4);
+        request.setFilterFrequency(1000);
+        request.setFilterBandwidth(500);
+        return request;
+    }
+}
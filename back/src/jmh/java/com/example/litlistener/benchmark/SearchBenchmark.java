@@ -0,0 +1,79 @@
+package com.example.litlistener.benchmark;
+
+import com.example.litlistener.entity.AudioFile;
+import com.example.litlistener.response.SearchResultResponse;
+import com.example.litlistener.service.SearchIndexService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SearchIndexService.search over a synthetic corpus. Transcripts draw from
+ * a small vocabulary, so the common words occur in nearly every file and
+ * their queries score the whole corpus; each file also carries one rare
+ * word shared with few others, for selective queries. The index is filled
+ * directly, without a database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SearchBenchmark {
+
+    private static final String[] WORDS = ("the radio tower reports contact north of the river at dawn "
+            + "weather clear wind light units moving toward the bridge over").split(" ");
+
+    @Param({"1000", "20000"})
+    public int files;
+
+    // Common term, two common terms, prefix, phrase, rare term
+    @Param({"radio", "radio bridge", "rep*", "\"radio tower\"", "rare42"})
+    public String query;
+
+    private SearchIndexService searchIndexService;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        searchIndexService = new SearchIndexService();
+        for (long id = 1; id <= files; id++) {
+            String name = String.format("recording-%06d.mp3", id);
+            AudioFile audioFile = new AudioFile(name, "/app/audio/" + name);
+            audioFile.setId(id);
+            audioFile.setTag(id % 3 == 0 ? "Radio" : "Field");
+            audioFile.setField("North");
+            // About 20 files share each rare word
+            audioFile.setTranscript(text(random, 250) + " rare" + (id % Math.max(1, files / 20)));
+            audioFile.setWhisper(text(random, 250));
+            searchIndexService.index(audioFile);
+        }
+    }
+
+    @Benchmark
+    public List<SearchResultResponse> search() {
+        return searchIndexService.search(query, 20);
+    }
+
+    private static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.toString().trim();
+    }
+}
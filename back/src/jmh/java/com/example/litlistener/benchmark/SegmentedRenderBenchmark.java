@@ -0,0 +1,97 @@
+package com.example.litlistener.benchmark;
+
+import com.example.litlistener.request.AudioProcessingRequest;
+import com.example.litlistener.service.AudioProcessingService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full FFmpeg render of a long recording, in one process and split into
+ * parallel segments. Each invocation asks for a slightly different volume,
+ * so the rendition cache never answers. The source is pink noise generated
+ * with FFmpeg, which gives the compressor and band-pass real work.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="SegmentedRenderBenchmark -p minutes=60"
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class SegmentedRenderBenchmark {
+
+    @Param({"false", "true"})
+    public boolean segmented;
+
+    @Param({"20"})
+    public int minutes;
+
+    @Param({"300"})
+    public int segmentSeconds;
+
+    private Path workDir;
+    private Path source;
+    private ConfigurableApplicationContext context;
+    private AudioProcessingService audioProcessingService;
+    private double amplification = 1.5;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        workDir = Files.createTempDirectory("litlistener-bench");
+        Path audioFolder = Files.createDirectories(workDir.resolve("audio"));
+        source = audioFolder.resolve("noise.mp3");
+        Process process = new ProcessBuilder("ffmpeg", "-y", "-v", "error", "-f", "lavfi",
+                "-i", "anoisesrc=color=pink:sample_rate=44100:duration=" + minutes * 60,
+                "-ac", "2", "-b:a", "128k", source.toString())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (process.waitFor() != 0) {
+            throw new IOException("FFmpeg could not generate the source (exit code " + process.exitValue() + ")");
+        }
+        context = BenchmarkApplication.start(audioFolder, workDir,
+                "--audio.processing.segment.enabled=" + segmented,
+                "--audio.processing.segment.min-duration-seconds=0",
+                "--audio.processing.segment.seconds=" + segmentSeconds);
+        audioProcessingService = context.getBean(AudioProcessingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(workDir);
+    }
+
+    @Benchmark
+    public String render() throws Exception {
+        amplification += 1e-6;
+        AudioProcessingRequest request = new AudioProcessingRequest();
+        request.setFilePath(source.toString());
+        request.setAmplificationFactor(amplification);
+        request.setCompressionThreshold(-20);
+        request.setCompressionRatio(4);
+        request.setFilterFrequency(1000);
+        request.setFilterBandwidth(500);
+        return audioProcessingService.processAudio(request);
+    }
+}
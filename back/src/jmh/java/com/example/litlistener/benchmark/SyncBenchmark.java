@@ -0,0 +1,83 @@
+package com.example.litlistener.benchmark;
+
+import com.example.litlistener.service.StartupService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StartupService.synchronizeAudioFolder over a folder of synthetic files
+ * that are already in the database, i.e. what every restart does: scan,
+ * load and diff, with nothing to write. The rows are seeded with metadata
+ * directly, so setting up 100k files does not run 100k ffprobes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class SyncBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int files;
+
+    private Path workDir;
+    private Path audioFolder;
+    private ConfigurableApplicationContext context;
+    private StartupService startupService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("litlistener-bench");
+        audioFolder = Files.createDirectories(workDir.resolve("audio")).toAbsolutePath().normalize();
+        // Started on the empty folder, so the startup sync has nothing to probe
+        context = BenchmarkApplication.start(audioFolder, workDir);
+        startupService = context.getBean(StartupService.class);
+
+        byte[] wav = TestAudio.sineWav(0.01, 8000, 1, 440);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < files; i++) {
+            Path file = audioFolder.resolve(String.format("file-%06d.wav", i));
+            Files.write(file, wav);
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            rows.add(new Object[] {file.getFileName().toString(), file.toString(), attrs.size(),
+                    attrs.lastModifiedTime().toMillis(), 10L, 8000, 1, 128000});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO audio_files (name, path, file_size, "
+                + "last_modified, duration_ms, sample_rate, channels, bit_rate) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(workDir);
+    }
+
+    @Benchmark
+    public void resync() {
+        startupService.synchronizeAudioFolder(audioFolder.toString());
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.litlistener.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Generates 16-bit PCM WAV files, so the benchmarks need no fixtures.
+ */
+final class TestAudio {
+
+    private TestAudio() {
+    }
+
+    static byte[] sineWav(double seconds, int sampleRate, int channels, double frequency) {
+        int frames = (int) Math.round(seconds * sampleRate);
+        int dataBytes = frames * channels * Short.BYTES;
+        ByteBuffer wav = ByteBuffer.allocate(44 + dataBytes).order(ByteOrder.LITTLE_ENDIAN);
+        wav.put("RIFF".getBytes()).putInt(36 + dataBytes).put("WAVE".getBytes());
+        wav.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) channels)
+                .putInt(sampleRate).putInt(sampleRate * channels * Short.BYTES)
+                .putShort((short) (channels * Short.BYTES)).putShort((short) 16);
+        wav.put("data".getBytes()).putInt(dataBytes);
+        for (int i = 0; i < frames; i++) {
+            short sample = (short) (Math.sin(2 * Math.PI * frequency * i / sampleRate) * Short.MAX_VALUE * 0.5);
+            for (int c = 0; c < channels; c++) {
+                wav.putShort(sample);
+            }
+        }
+        return wav.array();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.litlistener.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Makes a corpus of mp3 files locally with FFmpeg's lavfi sources: sine
+ * tones at varying pitch and pink/white noise, alternating, so the
+ * encoder and filters see both tonal and noisy material.
+ */
+final class CorpusGenerator {
+
+    private CorpusGenerator() {
+    }
+
+    static List<String> generate(Path folder, int files, int seconds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<String>> pending = new ArrayList<>();
+            for (int i = 0; i < files; i++) {
+                int index = i;
+                pending.add(pool.submit(() -> generateOne(folder, index, seconds)));
+            }
+            List<String> names = new ArrayList<>();
+            for (Future<String> future : pending) {
+                names.add(future.get());
+            }
+            return names;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static String generateOne(Path folder, int index, int seconds) throws IOException, InterruptedException {
+        String source = switch (index % 3) {
+            case 0 -> "sine=frequency=" + (220 + index % 40 * 20) + ":sample_rate=44100:duration=" + seconds;
+            case 1 -> "anoisesrc=color=pink:sample_rate=44100:duration=" + seconds;
+            default -> "anoisesrc=color=white:sample_rate=48000:amplitude=0.3:duration=" + seconds;
+        };
+        String name = String.format("loadtest-%05d.mp3", index);
+        Process process = new ProcessBuilder("ffmpeg", "-y", "-v", "error", "-f", "lavfi", "-i", source,
+                "-ac", "2", "-b:a", "128k", folder.resolve(name).toString())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (process.waitFor() != 0) {
+            throw new IOException("FFmpeg could not generate " + name + " (exit code " + process.exitValue() + ")");
+        }
+        return name;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.litlistener.loadtest;
+
+/**
+ * The traffic the harness replays. PROCESS is measured from submitting the
+ * job until polling reports it finished, which is what a user waits for.
+ */
+enum Endpoint {
+    LIST("GET /api/audio/list"),
+    FETCH("GET /api/transcriptions/{fileName}"),
+    SAVE("POST /api/transcriptions"),
+    PROCESS("POST /api/audio/process until done");
+
+    private final String description;
+
+    Endpoint(String description) {
+        this.description = description;
+    }
+
+    String description() {
+        return description;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.litlistener.loadtest;
+
+import com.example.litlistener.LitListenerApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * End-to-end load test: generates an audio corpus with FFmpeg, starts the
+ * application on a random port against an in-memory H2 database, replays a
+ * weighted mix of listing, transcription fetches and saves, and processing
+ * at each concurrency level, and reports p50/p95/p99 latency and throughput
+ * per endpoint. The result is written as JSON; pass a previous file as
+ * --baseline to print the change against it.
+ *
+ * Options, as --name=value: files, file-seconds, concurrency (comma-separated
+ * levels), duration and warmup (seconds per level), mix (e.g.
+ * list=30,fetch=45,save=20,process=5), output and baseline (JSON paths).
+ *
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--files=200 --concurrency=1,8,32 --duration=60"
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Instant startedAt = Instant.now();
+        Path workDir = Files.createTempDirectory("litlistener-loadtest");
+        Path audioFolder = Files.createDirectories(workDir.resolve("audio"));
+
+        long start = System.nanoTime();
+        List<String> names = CorpusGenerator.generate(audioFolder, options.files(), options.fileSeconds());
+        System.out.printf("Generated %d files of %d s in %d ms%n", names.size(), options.fileSeconds(),
+                (System.nanoTime() - start) / 1_000_000);
+
+        ConfigurableApplicationContext context = start(audioFolder, workDir);
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            Traffic traffic = new Traffic(baseUrl, names);
+
+            // Tag every file once, so filtered listings return rows
+            for (String name : names) {
+                traffic.save(name, ThreadLocalRandom.current());
+            }
+
+            List<LoadTestResult.LevelResult> levels = new ArrayList<>();
+            for (int concurrency : options.concurrency()) {
+                run(traffic, options, concurrency, options.warmupSeconds());
+                long levelStart = System.nanoTime();
+                Samples samples = run(traffic, options, concurrency, options.durationSeconds());
+                double seconds = (System.nanoTime() - levelStart) / 1e9;
+
+                List<LoadTestResult.EndpointResult> endpoints = new ArrayList<>();
+                for (Endpoint endpoint : options.mix().keySet()) {
+                    endpoints.add(samples.summarize(endpoint, seconds));
+                }
+                LoadTestResult.LevelResult level = new LoadTestResult.LevelResult(concurrency, seconds, endpoints);
+                levels.add(level);
+                print(level);
+            }
+
+            Map<String, Integer> mix = new LinkedHashMap<>();
+            options.mix().forEach((endpoint, weight) -> mix.put(endpoint.name().toLowerCase(), weight));
+            LoadTestResult result = new LoadTestResult(startedAt.toString(), options.files(),
+                    options.fileSeconds(), options.durationSeconds(), options.warmupSeconds(), mix, levels);
+
+            ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+            Files.createDirectories(options.output().toAbsolutePath().getParent());
+            objectMapper.writeValue(options.output().toFile(), result);
+            System.out.println("Wrote " + options.output().toAbsolutePath());
+
+            if (options.baseline() != null) {
+                compare(objectMapper.readValue(options.baseline().toFile(), LoadTestResult.class), result);
+            }
+        } finally {
+            context.close();
+            FileSystemUtils.deleteRecursively(workDir);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(Path audioFolder, Path workDir) {
+        // DevTools would otherwise restart the application by calling main again
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // Passed as arguments so they take precedence over application.properties
+        return new SpringApplicationBuilder(LitListenerApplication.class)
+                .bannerMode(Banner.Mode.OFF)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--audio.folder=" + audioFolder,
+                        "--audio.cache.dir=" + audioFolder.resolve("renditions"),
+                        "--audio.waveform.dir=" + workDir.resolve("waveforms"),
+                        "--audio.watch.enabled=false",
+                        "--audio.whisper.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.example.litlistener=WARN",
+                        "--logging.level.org.hibernate.orm.deprecation=ERROR");
+    }
+
+    // Closed loop: each worker sends its next request as soon as the previous one returns
+    private static Samples run(Traffic traffic, LoadTestOptions options, int concurrency, int seconds)
+            throws Exception {
+        List<Endpoint> endpoints = new ArrayList<>(options.mix().keySet());
+        int[] cumulative = new int[endpoints.size()];
+        int total = 0;
+        for (int i = 0; i < endpoints.size(); i++) {
+            total += options.mix().get(endpoints.get(i));
+            cumulative[i] = total;
+        }
+        int totalWeight = total;
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Samples>> pending = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                pending.add(workers.submit(() -> {
+                    Samples samples = new Samples();
+                    while (System.nanoTime() < deadline) {
+                        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+                        int index = 0;
+                        while (cumulative[index] <= pick) {
+                            index++;
+                        }
+                        Endpoint endpoint = endpoints.get(index);
+                        long requestStart = System.nanoTime();
+                        boolean succeeded;
+                        try {
+                            succeeded = traffic.send(endpoint);
+                        } catch (IOException e) {
+                            succeeded = false;
+                        }
+                        samples.record(endpoint, System.nanoTime() - requestStart, succeeded);
+                    }
+                    return samples;
+                }));
+            }
+            Samples merged = new Samples();
+            for (Future<Samples> future : pending) {
+                merged.addAll(future.get());
+            }
+            return merged;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static void print(LoadTestResult.LevelResult level) {
+        System.out.printf("%nConcurrency %d (%.1f s)%n", level.concurrency(), level.seconds());
+        System.out.printf("%-36s %9s %7s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s",
+                "p50 ms", "p95 ms", "p99 ms");
+        for (LoadTestResult.EndpointResult endpoint : level.endpoints()) {
+            System.out.printf("%-36s %9d %7d %9.1f %9.2f %9.2f %9.2f%n", endpoint.description(),
+                    endpoint.requests(), endpoint.errors(), endpoint.throughputPerSecond(),
+                    endpoint.p50Ms(), endpoint.p95Ms(), endpoint.p99Ms());
+        }
+    }
+
+    private static void compare(LoadTestResult baseline, LoadTestResult current) {
+        System.out.printf("%nAgainst baseline from %s (positive p95 change is slower)%n", baseline.startedAt());
+        System.out.printf("%-12s %-9s %12s %12s %12s %12s%n", "concurrency", "endpoint", "p95 ms", "p95 change",
+                "req/s", "req/s change");
+        for (LoadTestResult.LevelResult level : current.levels()) {
+            LoadTestResult.LevelResult before = baseline.levels().stream()
+                    .filter(candidate -> candidate.concurrency() == level.concurrency())
+                    .findFirst().orElse(null);
+            if (before == null) {
+                continue;
+            }
+            for (LoadTestResult.EndpointResult endpoint : level.endpoints()) {
+                before.endpoints().stream()
+                        .filter(candidate -> candidate.endpoint().equals(endpoint.endpoint()))
+                        .findFirst()
+                        .ifPresent(previous -> System.out.printf("%-12d %-9s %12.2f %11.1f%% %12.1f %11.1f%%%n",
+                                level.concurrency(), endpoint.endpoint(), endpoint.p95Ms(),
+                                change(previous.p95Ms(), endpoint.p95Ms()), endpoint.throughputPerSecond(),
+                                change(previous.throughputPerSecond(), endpoint.throughputPerSecond())));
+            }
+        }
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+}
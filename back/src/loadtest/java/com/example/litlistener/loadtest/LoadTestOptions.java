@@ -0,0 +1,51 @@
+package com.example.litlistener.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line options, given as --name=value. Every option has a default,
+ * so a run without arguments is a quick smoke test.
+ */
+record LoadTestOptions(int files, int fileSeconds, List<Integer> concurrency, int durationSeconds,
+        int warmupSeconds, Map<Endpoint, Integer> mix, Path output, Path baseline) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        List<Integer> concurrency = new ArrayList<>();
+        for (String level : values.getOrDefault("concurrency", "1,4,16").split(",")) {
+            concurrency.add(Integer.parseInt(level.trim()));
+        }
+
+        // Relative weights per endpoint, e.g. list=30,fetch=45,save=20,process=5
+        Map<Endpoint, Integer> mix = new LinkedHashMap<>();
+        for (String entry : values.getOrDefault("mix", "list=30,fetch=45,save=20,process=5").split(",")) {
+            String[] parts = entry.split("=");
+            mix.put(Endpoint.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        return new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("files", "100")),
+                Integer.parseInt(values.getOrDefault("file-seconds", "30")),
+                concurrency,
+                Integer.parseInt(values.getOrDefault("duration", "30")),
+                Integer.parseInt(values.getOrDefault("warmup", "5")),
+                mix,
+                Paths.get(values.getOrDefault("output", "target/loadtest/run-" + timestamp + ".json")),
+                values.containsKey("baseline") ? Paths.get(values.get("baseline")) : null);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.litlistener.loadtest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The machine-readable result of a run, written as JSON and read back as
+ * the baseline of a later run.
+ */
+record LoadTestResult(String startedAt, int files, int fileSeconds, int durationSeconds, int warmupSeconds,
+        Map<String, Integer> mix, List<LevelResult> levels) {
+
+    record LevelResult(int concurrency, double seconds, List<EndpointResult> endpoints) {
+    }
+
+    record EndpointResult(String endpoint, String description, long requests, long errors,
+            double throughputPerSecond, double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+}
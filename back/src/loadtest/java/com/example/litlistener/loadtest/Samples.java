@@ -0,0 +1,69 @@
+package com.example.litlistener.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Latencies of successful requests and error counts per endpoint. Each
+ * worker records into its own instance; they are merged once the level is
+ * over, so recording needs no synchronization.
+ */
+final class Samples {
+
+    private final Map<Endpoint, long[]> latencies = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Integer> counts = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Integer> errors = new EnumMap<>(Endpoint.class);
+
+    void record(Endpoint endpoint, long nanos, boolean succeeded) {
+        if (!succeeded) {
+            errors.merge(endpoint, 1, Integer::sum);
+            return;
+        }
+        long[] values = latencies.computeIfAbsent(endpoint, e -> new long[1024]);
+        int count = counts.getOrDefault(endpoint, 0);
+        if (count == values.length) {
+            values = Arrays.copyOf(values, count * 2);
+            latencies.put(endpoint, values);
+        }
+        values[count] = nanos;
+        counts.put(endpoint, count + 1);
+    }
+
+    void addAll(Samples other) {
+        for (Endpoint endpoint : Endpoint.values()) {
+            long[] values = other.latencies(endpoint);
+            for (long value : values) {
+                record(endpoint, value, true);
+            }
+            errors.merge(endpoint, other.errors(endpoint), Integer::sum);
+        }
+    }
+
+    long[] latencies(Endpoint endpoint) {
+        long[] values = latencies.get(endpoint);
+        return values == null ? new long[0] : Arrays.copyOf(values, counts.get(endpoint));
+    }
+
+    int errors(Endpoint endpoint) {
+        return errors.getOrDefault(endpoint, 0);
+    }
+
+    LoadTestResult.EndpointResult summarize(Endpoint endpoint, double seconds) {
+        long[] sorted = latencies(endpoint);
+        Arrays.sort(sorted);
+        return new LoadTestResult.EndpointResult(endpoint.name().toLowerCase(), endpoint.description(),
+                sorted.length, errors(endpoint), sorted.length / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    // Nearest-rank percentile, in milliseconds
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.litlistener.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sends one request of a kind against the running application, with
+ * randomized but plausible parameters, and reports whether it succeeded.
+ */
+final class Traffic {
+
+    static final String[] TAGS = {"Radio", "Field", "Interview", "Music"};
+    static final String[] FIELDS = {"North", "South", "East", "West"};
+    private static final String[] WORDS = ("the radio tower reports contact north of the river at dawn "
+            + "weather clear wind light units moving toward the bridge over").split(" ");
+    private static final Duration PROCESS_TIMEOUT = Duration.ofMinutes(5);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final List<String> names;
+
+    Traffic(String baseUrl, List<String> names) {
+        this.baseUrl = baseUrl;
+        this.names = names;
+    }
+
+    boolean send(Endpoint endpoint) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String name = names.get(random.nextInt(names.size()));
+        return switch (endpoint) {
+            case LIST -> list(random);
+            case FETCH -> get("/api/transcriptions/" + encode(name)).statusCode() == 200;
+            case SAVE -> save(name, random);
+            case PROCESS -> process(name, random);
+        };
+    }
+
+    boolean save(String name, ThreadLocalRandom random) throws IOException, InterruptedException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("fileName", name);
+        body.put("from", "0:00");
+        body.put("to", "0:10");
+        body.put("transcription", text.toString().trim());
+        body.put("tag", TAGS[random.nextInt(TAGS.length)]);
+        body.put("field", FIELDS[random.nextInt(FIELDS.length)]);
+        int status = post("/api/transcriptions", body).statusCode();
+        return status >= 200 && status < 300;
+    }
+
+    private boolean list(ThreadLocalRandom random) throws IOException, InterruptedException {
+        StringBuilder query = new StringBuilder("/api/audio/list?size=50");
+        query.append(random.nextBoolean() ? "&sort=name" : "&sort=id");
+        if (random.nextBoolean()) {
+            query.append("&tag=").append(TAGS[random.nextInt(TAGS.length)]);
+        }
+        return get(query.toString()).statusCode() == 200;
+    }
+
+    private boolean process(String name, ThreadLocalRandom random) throws IOException, InterruptedException {
+        // A limited set of settings, so some requests repeat and hit the rendition cache as they would in use
+        Map<String, Object> body = new HashMap<>();
+        body.put("filePath", baseUrl + "/api/audio/stream/" + encode(name));
+        body.put("amplificationFactor", 0.5 + random.nextInt(11) * 0.25);
+        if (random.nextInt(4) == 0) {
+            body.put("filterFrequency", 1000);
+            body.put("filterBandwidth", 500);
+        }
+        HttpResponse<String> submitted = post("/api/audio/process", body);
+        if (submitted.statusCode() != 202) {
+            return false;
+        }
+        String jobId = objectMapper.readTree(submitted.body()).path("jobId").asText();
+
+        long deadline = System.nanoTime() + PROCESS_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            HttpResponse<String> polled = get("/api/audio/jobs/" + jobId);
+            if (polled.statusCode() != 200) {
+                return false;
+            }
+            JsonNode job = objectMapper.readTree(polled.body());
+            switch (job.path("status").asText()) {
+                case "DONE":
+                    return true;
+                case "FAILED":
+                    return false;
+                default:
+                    Thread.sleep(25);
+            }
+        }
+        return false;
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, Object body) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String encode(String name) {
+        return URLEncoder.encode(name, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
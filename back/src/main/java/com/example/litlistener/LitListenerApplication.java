@@ -5,9 +5,11 @@ import java.io.File;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import com.example.litlistener.service.AudioFolderWatcher;
 import com.example.litlistener.service.StartupService;
 
 @SpringBootApplication
@@ -16,10 +18,15 @@ public class LitListenerApplication implements CommandLineRunner {
 	@Autowired
 	private StartupService startupService;
 
+	@Autowired
+	private AudioFolderWatcher audioFolderWatcher;
+
+	@Value("${audio.folder:/app/audio}")
+	private String audioFolder;
+
 	private static final Logger logger = LoggerFactory.getLogger(LitListenerApplication.class);
 
 	public static void main(String[] args) {
-		System.out.println("CommandLineRunner.run() has been invoked! in static void");
 		logger.info("Starting LitListenerApplication main method...");
 		SpringApplication.run(LitListenerApplication.class, args);
 		logger.info("LitListenerApplication main method has completed.");
@@ -27,11 +34,12 @@ public class LitListenerApplication implements CommandLineRunner {
 
 	@Override
 	public void run(String... args) throws Exception {
-		System.out.println("CommandLineRunner.run() has been invoked!");
 		logger.info("CommandLineRunner.run() method is starting...");
-		String audioFolderPath = "/app/audio"; // Path inside the container
+		String audioFolderPath = audioFolder; // Path inside the container
 		logger.info("Audio folder path: {}", new File(audioFolderPath).getAbsolutePath());
 		startupService.synchronizeAudioFolder(audioFolderPath);
+		// Pick up files dropped into the folder from now on without a restart
+		audioFolderWatcher.start(audioFolderPath);
 		logger.info("CommandLineRunner.run() method has completed.");
 	}
 }
@@ -0,0 +1,31 @@
+package com.example.litlistener.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AudioProcessingConfig {
+
+    // 0 means "derive from the number of available cores"
+    @Value("${audio.processing.threads:0}")
+    private int threads;
+
+    @Value("${audio.processing.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Bean(name = "audioProcessingExecutor")
+    public ThreadPoolTaskExecutor audioProcessingExecutor() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("audio-proc-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
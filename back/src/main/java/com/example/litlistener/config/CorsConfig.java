@@ -17,7 +17,10 @@ public class CorsConfig {
                 registry.addMapping("/**")
                         .allowedOrigins("http://localhost:5173")
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
-                        .allowedHeaders("*");
+                        .allowedHeaders("*")
+                        // Waveform slices describe themselves in response headers
+                        .exposedHeaders("X-Waveform-Sample-Rate", "X-Waveform-Sample-Count",
+                                "X-Waveform-Samples-Per-Peak", "X-Waveform-Start-Peak");
             }
         };
     }
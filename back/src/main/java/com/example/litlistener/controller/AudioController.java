@@ -1,32 +1,77 @@
 package com.example.litlistener.controller;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.litlistener.entity.AudioFile;
 import com.example.litlistener.repository.AudioFileRepository;
+import com.example.litlistener.request.AudioFileListRequest;
 import com.example.litlistener.request.AudioProcessingRequest;
-import com.example.litlistener.service.AudioProcessingService;
+import com.example.litlistener.request.BulkProcessingRequest;
+import com.example.litlistener.response.AudioFilePageResponse;
+import com.example.litlistener.response.AudioJobResponse;
+import com.example.litlistener.response.BulkJobResponse;
+import com.example.litlistener.response.BulkProcessingItemResponse;
+import com.example.litlistener.response.BulkProcessingResponse;
+import com.example.litlistener.response.FacetsResponse;
+import com.example.litlistener.service.AudioFileLocator;
+import com.example.litlistener.service.AudioFileService;
+import com.example.litlistener.service.AudioJobEventService;
+import com.example.litlistener.service.AudioJobService;
+import com.example.litlistener.service.FacetService;
+import com.example.litlistener.service.AudioProcessingJob;
+import com.example.litlistener.service.BulkProcessingJob;
+import com.example.litlistener.service.BulkProcessingService;
+import com.example.litlistener.service.PreviewService;
 
 import java.util.List;
 import java.util.Map;
 import java.io.File;
+import java.nio.file.Paths;
 
 @RestController
 @RequestMapping("/api/audio")
 public class AudioController {
 
+    private static final Logger logger = LoggerFactory.getLogger(AudioController.class);
+
     @Autowired
     private AudioFileRepository audioFileRepository;
 
     @Autowired
-    private AudioProcessingService audioProcessingService;
+    private AudioFileService audioFileService;
+
+    @Autowired
+    private AudioJobService audioJobService;
+
+    @Autowired
+    private PreviewService previewService;
+
+    @Autowired
+    private AudioFileLocator audioFileLocator;
+
+    @Autowired
+    private FacetService facetService;
+
+    @Autowired
+    private BulkProcessingService bulkProcessingService;
+
+    @Autowired
+    private AudioJobEventService audioJobEventService;
 
     // Create a new audio file
     @PostMapping
     public AudioFile createAudioFile(@RequestBody AudioFile audioFile) {
-        return audioFileRepository.save(audioFile);
+        return audioFileService.saveAudioFile(audioFile);
     }
 
     // Get all audio files
@@ -35,7 +80,23 @@ public class AudioController {
         return audioFileRepository.findAll();
     }
 
-    // Process an audio file
+    // File counts per tag and per field
+    @GetMapping("/facets")
+    public FacetsResponse getFacets() {
+        return facetService.getFacets();
+    }
+
+    // Get one page of slim audio file summaries, filtered and sorted on the server
+    @GetMapping("/list")
+    public ResponseEntity<AudioFilePageResponse> listAudioFiles(@ModelAttribute AudioFileListRequest request) {
+        try {
+            return ResponseEntity.ok(audioFileService.listAudioFiles(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Queue an audio file for processing; poll /jobs/{id} or follow /jobs/{id}/events for the result
     @PostMapping("/process")
     public ResponseEntity<Map<String, String>> processAudioFile(@RequestBody AudioProcessingRequest request) {
         try {
@@ -53,35 +114,141 @@ public class AudioController {
 
             // Update request with the server path
             request.setFilePath(filePath);
-            System.out.println("We got here" + filePath);
-            // Process the file
-            String processedFilePath = audioProcessingService.processAudio(request);
-            System.out.println("We got here 2" + processedFilePath);
-            // Convert the processed file path to a URL
-            String processedFileName = new File(processedFilePath).getName();
-            String processedFileUrl = "http://localhost:8080/" + processedFileName;
-
-            // Return JSON with the URL
-            System.out.println("returning url as: " + processedFileUrl);
-            return ResponseEntity.ok(Map.of("url", processedFileUrl));
+            AudioProcessingJob job = audioJobService.submit(request);
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(Map.of("jobId", job.getId(), "status", job.getStatus().name()));
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Processing queue is full, try again later."));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Error processing audio: " + e.getMessage()));
         }
     }
 
-    // Helper method to convert URL to file path
-    private String convertUrlToFilePath(String url) {
-        if (url == null || url.isEmpty()) {
-            throw new IllegalArgumentException("URL is null or empty");
+    // Get the status of a processing job
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<AudioJobResponse> getProcessingJob(@PathVariable String id) {
+        AudioProcessingJob job = audioJobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        return ResponseEntity.ok(audioJobEventService.describe(job));
+    }
+
+    // Server-Sent Events with the job's progress as FFmpeg reports it, ending with "done" or "failed"
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> followProcessingJob(@PathVariable String id) {
+        AudioProcessingJob job = audioJobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
+        return ResponseEntity.ok(audioJobEventService.subscribe(job));
+    }
 
-        System.out.println("Converting URL to file path: " + url);
+    // Apply a preset to a selection of files, or to every file with a tag and/or field; poll /bulk/{id}
+    @PostMapping("/bulk")
+    public ResponseEntity<?> processAudioFiles(@RequestBody BulkProcessingRequest request) {
+        try {
+            BulkProcessingJob job = bulkProcessingService.submit(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new BulkJobResponse(job.getId(), job.getStatus().name(), job.getTotal()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", e.getMessage() + " Try again when one has finished."));
+        }
+    }
 
-        String fileName = url.substring(url.lastIndexOf("/") + 1);
-        String filePath = "/app/audio/" + fileName;
+    // Progress of a bulk job: counts, throughput, and the outcome of every file
+    @GetMapping("/bulk/{id}")
+    public ResponseEntity<BulkProcessingResponse> getBulkJob(@PathVariable String id) {
+        BulkProcessingJob job = bulkProcessingService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
 
-        System.out.println("File path resolved to: " + filePath);
+        List<BulkProcessingItemResponse> items = job.getItems().stream()
+                .map(item -> new BulkProcessingItemResponse(Paths.get(item.getFilePath()).getFileName().toString(),
+                        item.getStatus().name(),
+                        item.getProcessedFilePath() != null
+                                ? audioFileLocator.toStreamUrl(Paths.get(item.getProcessedFilePath())) : null,
+                        item.getError(),
+                        item.getDurationMs() >= 0 ? item.getDurationMs() : null))
+                .toList();
+
+        // Rates over the files finished so far; the estimate assumes the rest go at the same pace
+        double seconds = Math.max(job.getElapsedMs(), 1) / 1000.0;
+        int finished = job.getDone() + job.getFailed();
+        int remaining = job.getQueued() + job.getRunning();
+        Long etaSeconds = finished > 0 && !job.isFinished() ? Math.round(remaining * seconds / finished) : null;
+        return ResponseEntity.ok(new BulkProcessingResponse(job.getId(), job.getPreset(), job.getStatus().name(),
+                job.getTotal(), job.getQueued(), job.getRunning(), job.getDone(), job.getFailed(),
+                job.getCancelled(), job.getElapsedMs(), finished / seconds,
+                job.getSourceBytes() / (1024.0 * 1024.0) / seconds, etaSeconds, items));
+    }
 
+    // Cancel a bulk job; files already rendering finish, the rest are skipped
+    @DeleteMapping("/bulk/{id}")
+    public ResponseEntity<Void> cancelBulkJob(@PathVariable String id) {
+        return bulkProcessingService.cancel(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    // Issue a preview ID; only whoever holds it can stream or cancel previews under it
+    @PostMapping("/preview")
+    public ResponseEntity<Map<String, String>> createPreview() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("previewId", previewService.create()));
+    }
+
+    // Stream a processed preview while FFmpeg renders it
+    @GetMapping(value = "/preview", produces = "audio/mpeg")
+    public ResponseEntity<StreamingResponseBody> previewAudioFile(@RequestParam String previewId,
+            @ModelAttribute AudioProcessingRequest request) {
+        if (!previewService.exists(previewId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (request.getFilePath() == null || request.getFilePath().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String filePath;
+        try {
+            filePath = convertUrlToFilePath(request.getFilePath());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!new File(filePath).exists()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        request.setFilePath(filePath);
+        PreviewService.Run run = previewService.reserve(previewId);
+        if (run == null) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        StreamingResponseBody body = out -> previewService.streamPreview(run, request, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("audio/mpeg"))
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
+
+    // Cancel a running preview, e.g. when a slider moves again
+    @DeleteMapping("/preview/{previewId}")
+    public ResponseEntity<Void> cancelPreview(@PathVariable String previewId) {
+        return previewService.cancel(previewId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    // Helper method to convert URL to file path
+    private String convertUrlToFilePath(String url) {
+        String filePath = audioFileLocator.resolveUrl(url).toString();
+        logger.debug("Resolved URL {} to {}", url, filePath);
         return filePath;
     }
 
@@ -0,0 +1,54 @@
+package com.example.litlistener.controller;
+
+import com.example.litlistener.entity.ProcessingPreset;
+import com.example.litlistener.request.AudioProcessingRequest;
+import com.example.litlistener.service.ProcessingPresetService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/presets")
+public class ProcessingPresetController {
+
+    @Autowired
+    private ProcessingPresetService processingPresetService;
+
+    @GetMapping
+    public List<ProcessingPreset> getPresets() {
+        return processingPresetService.getPresets();
+    }
+
+    @GetMapping("/{name}")
+    public ResponseEntity<ProcessingPreset> getPreset(@PathVariable String name) {
+        ProcessingPreset preset = processingPresetService.getPreset(name);
+        return preset != null ? ResponseEntity.ok(preset) : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    // Create or replace a preset; the body takes the fields of a process request (filePath is ignored)
+    @PutMapping("/{name}")
+    public ResponseEntity<?> savePreset(@PathVariable String name, @RequestBody AudioProcessingRequest settings) {
+        try {
+            return ResponseEntity.ok(processingPresetService.savePreset(name, settings));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (DataIntegrityViolationException e) {
+            // Another request created the same name at the same time
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Preset " + name + " was saved concurrently, try again."));
+        }
+    }
+
+    @DeleteMapping("/{name}")
+    public ResponseEntity<Void> deletePreset(@PathVariable String name) {
+        return processingPresetService.deletePreset(name)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+}
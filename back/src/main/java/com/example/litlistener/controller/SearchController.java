@@ -0,0 +1,31 @@
+package com.example.litlistener.controller;
+
+import com.example.litlistener.response.SearchResponse;
+import com.example.litlistener.response.SearchResultResponse;
+import com.example.litlistener.service.SearchIndexService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private static final int MAX_LIMIT = 200;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    // Ranked search; supports prefix terms (radi*) and "quoted phrases"
+    @GetMapping
+    public ResponseEntity<SearchResponse> search(@RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit) {
+        long start = System.nanoTime();
+        List<SearchResultResponse> results = searchIndexService.search(query,
+                Math.max(1, Math.min(limit, MAX_LIMIT)));
+        return ResponseEntity.ok(new SearchResponse(results, (System.nanoTime() - start) / 1_000_000.0));
+    }
+}
@@ -1,21 +1,35 @@
 package com.example.litlistener.controller;
 
+import com.example.litlistener.request.TranscriptionBatchRequest;
 import com.example.litlistener.request.TranscriptionRequest;
 import com.example.litlistener.response.TranscriptionResponse;
+import com.example.litlistener.response.TranscriptionSegmentResponse;
+import com.example.litlistener.response.TranscriptionSummaryResponse;
 import com.example.litlistener.service.TranscriptionService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/transcriptions")
 public class TranscriptionController {
 
+    // Names per IN query, well below common database parameter limits
+    private static final int BATCH_CHUNK_SIZE = 500;
+
     @Autowired
     private TranscriptionService transcriptionService;
 
+    // Largest number of names plus ids one batch request may ask for
+    @Value("${audio.transcriptions.batch-max-files:1000}")
+    private int batchMaxFiles;
+
     @PostMapping
     public ResponseEntity<String> saveTranscription(@RequestBody TranscriptionRequest request) {
         try {
@@ -27,6 +41,45 @@ public class TranscriptionController {
         }
     }
 
+    // FROM/TO and category of many files at once; larger requests are rejected, so the client splits them
+    @PostMapping("/batch")
+    public ResponseEntity<List<TranscriptionSummaryResponse>> getTranscriptions(
+            @RequestBody TranscriptionBatchRequest request) {
+        List<String> fileNames = request.getFileNames() != null ? request.getFileNames() : List.of();
+        List<Long> ids = request.getIds() != null ? request.getIds() : List.of();
+        if (fileNames.size() + ids.size() > batchMaxFiles) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Everything is looked up before the response starts, so a failed query is an error status
+        // and never a truncated array
+        List<TranscriptionSummaryResponse> summaries = new ArrayList<>();
+        for (int i = 0; i < fileNames.size(); i += BATCH_CHUNK_SIZE) {
+            List<String> chunk = fileNames.subList(i, Math.min(i + BATCH_CHUNK_SIZE, fileNames.size()));
+            summaries.addAll(transcriptionService.getSummariesByName(chunk));
+        }
+        for (int i = 0; i < ids.size(); i += BATCH_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(i, Math.min(i + BATCH_CHUNK_SIZE, ids.size()));
+            summaries.addAll(transcriptionService.getSummariesById(chunk));
+        }
+        return ResponseEntity.ok(summaries);
+    }
+
+    // Caption window: the segments overlapping [fromMs, toMs)
+    @GetMapping("/{fileName}/segments")
+    public ResponseEntity<List<TranscriptionSegmentResponse>> getSegments(@PathVariable String fileName,
+            @RequestParam(defaultValue = "0") long fromMs,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long toMs) {
+        if (fromMs < 0 || toMs <= fromMs) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<TranscriptionSegmentResponse> segments = transcriptionService.getSegments(fileName, fromMs, toMs);
+        if (segments == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.ok(segments);
+    }
+
     @GetMapping("/{fileName}")
     public ResponseEntity<TranscriptionResponse> getTranscription(@PathVariable String fileName) {
         try {
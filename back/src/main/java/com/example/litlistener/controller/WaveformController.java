@@ -0,0 +1,58 @@
+package com.example.litlistener.controller;
+
+import com.example.litlistener.service.AudioFileLocator;
+import com.example.litlistener.service.WaveformService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping(WaveformController.WAVEFORM_PATH)
+public class WaveformController {
+
+    public static final String WAVEFORM_PATH = "/api/audio/waveform";
+
+    private static final int MAX_PEAKS = 20000;
+
+    @Autowired
+    private AudioFileLocator audioFileLocator;
+
+    @Autowired
+    private WaveformService waveformService;
+
+    // Interleaved signed 8-bit min/max pairs; the X-Waveform-* headers say how to place them in time
+    @GetMapping("/{*path}")
+    public ResponseEntity<byte[]> getWaveform(@PathVariable String path,
+            @RequestParam(defaultValue = "0") long startMs,
+            @RequestParam(defaultValue = "-1") long endMs,
+            @RequestParam(defaultValue = "1000") int minPeaks) throws Exception {
+        Path file;
+        try {
+            file = audioFileLocator.resolveRelative(path);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!Files.isRegularFile(file)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (startMs < 0 || (endMs >= 0 && endMs <= startMs)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        WaveformService.Slice slice = waveformService.read(file, startMs, endMs,
+                Math.max(1, Math.min(minPeaks, MAX_PEAKS)));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header("X-Waveform-Sample-Rate", String.valueOf(slice.sampleRate()))
+                .header("X-Waveform-Sample-Count", String.valueOf(slice.sampleCount()))
+                .header("X-Waveform-Samples-Per-Peak", String.valueOf(slice.samplesPerPeak()))
+                .header("X-Waveform-Start-Peak", String.valueOf(slice.startPeak()))
+                .body(slice.peaks());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.litlistener.dsp;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Processing loops over interleaved float PCM in the range [-1, 1]. None of
+ * them allocate; gain is element-wise and uses the Vector API, while the
+ * recursive ones (biquad, envelope follower) and the interpolating resampler
+ * run as plain scalar loops since each sample depends on the previous one.
+ */
+public final class DspKernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    private DspKernels() {
+    }
+
+    /**
+     * Multiplies every sample of source by the gain, clamps the result to
+     * [-1, 1] and writes it into target, which may be source.
+     */
+    public static void gain(float[] source, float[] target, int length, float gain) {
+        int i = 0;
+        int upperBound = SPECIES.loopBound(length);
+        for (; i < upperBound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, source, i)
+                    .mul(gain)
+                    .max(-1f)
+                    .min(1f)
+                    .intoArray(target, i);
+        }
+        for (; i < length; i++) {
+            target[i] = Math.max(-1f, Math.min(1f, source[i] * gain));
+        }
+    }
+
+    /**
+     * RBJ band-pass biquad (constant 0 dB peak gain) with the bandwidth given in
+     * Hz, matching FFmpeg's bandpass filter with width_type=h. Each channel keeps
+     * its own filter state.
+     */
+    public static void bandpass(float[] samples, int length, int channels, int sampleRate,
+            double frequency, double bandwidth) {
+        double w0 = 2 * Math.PI * frequency / sampleRate;
+        double q = frequency / bandwidth;
+        double alpha = Math.sin(w0) / (2 * q);
+        double a0 = 1 + alpha;
+        double b0 = alpha / a0;
+        double b2 = -alpha / a0;
+        double a1 = -2 * Math.cos(w0) / a0;
+        double a2 = (1 - alpha) / a0;
+
+        for (int channel = 0; channel < channels; channel++) {
+            double x1 = 0, x2 = 0, y1 = 0, y2 = 0;
+            for (int i = channel; i < length; i += channels) {
+                double x0 = samples[i];
+                double y0 = b0 * x0 + b2 * x2 - a1 * y1 - a2 * y2;
+                x2 = x1;
+                x1 = x0;
+                y2 = y1;
+                y1 = y0;
+                samples[i] = (float) y0;
+            }
+        }
+    }
+
+    /**
+     * Feed-forward compressor with a peak envelope follower linked across
+     * channels. Attack and release follow FFmpeg's acompressor defaults.
+     */
+    public static void compress(float[] samples, int length, int channels, int sampleRate,
+            double thresholdDb, double ratio) {
+        double attack = Math.exp(-1.0 / (0.020 * sampleRate));
+        double release = Math.exp(-1.0 / (0.250 * sampleRate));
+        double threshold = Math.pow(10, thresholdDb / 20);
+        double slope = 1 - 1 / ratio;
+        double envelope = 0;
+
+        for (int frame = 0; frame + channels <= length; frame += channels) {
+            double level = 0;
+            for (int c = 0; c < channels; c++) {
+                level = Math.max(level, Math.abs(samples[frame + c]));
+            }
+            double coefficient = level > envelope ? attack : release;
+            envelope = coefficient * envelope + (1 - coefficient) * level;
+
+            if (envelope > threshold) {
+                // gain reduction in dB is (threshold - level) * (1 - 1/ratio)
+                float gain = (float) Math.pow(threshold / envelope, slope);
+                for (int c = 0; c < channels; c++) {
+                    samples[frame + c] *= gain;
+                }
+            }
+        }
+    }
+
+    /**
+     * Resamples by the given factor with linear interpolation, which raises
+     * pitch and speed together like FFmpeg's asetrate. Writes into target and
+     * returns the number of samples written; target must hold at least
+     * outputLength(length, channels, factor) samples.
+     */
+    public static int resample(float[] source, int length, int channels, double factor, float[] target) {
+        int frames = length / channels;
+        int outFrames = (int) (frames / factor);
+        for (int out = 0; out < outFrames; out++) {
+            double position = out * factor;
+            int index = (int) position;
+            float fraction = (float) (position - index);
+            int next = Math.min(index + 1, frames - 1);
+            for (int c = 0; c < channels; c++) {
+                float a = source[index * channels + c];
+                float b = source[next * channels + c];
+                target[out * channels + c] = a + (b - a) * fraction;
+            }
+        }
+        return outFrames * channels;
+    }
+
+    public static int outputLength(int length, int channels, double factor) {
+        return (int) ((length / channels) / factor) * channels;
+    }
+}
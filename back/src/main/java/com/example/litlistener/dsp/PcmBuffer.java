@@ -0,0 +1,11 @@
+package com.example.litlistener.dsp;
+
+/**
+ * Decoded interleaved float PCM together with its format.
+ */
+public record PcmBuffer(float[] samples, int length, int sampleRate, int channels) {
+
+    public long sizeInBytes() {
+        return (long) samples.length * Float.BYTES;
+    }
+}
@@ -3,7 +3,14 @@ package com.example.litlistener.entity;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "audio_files")
+@Table(name = "audio_files", indexes = {
+        // Back the tag/field filters of the keyset-paginated listing, which orders by name
+        @Index(name = "idx_audio_files_tag_name", columnList = "tag, name"),
+        @Index(name = "idx_audio_files_field_name", columnList = "field, name"),
+        // ...and its sort=id variant
+        @Index(name = "idx_audio_files_tag_id", columnList = "tag, id"),
+        @Index(name = "idx_audio_files_field_id", columnList = "field, id")
+})
 public class AudioFile {
 
     @Id
@@ -34,6 +41,34 @@ public class AudioFile {
     @Column(nullable = true)
     private String field;
 
+    // Size and modification time seen at the last folder sync, used to detect changes
+    @Column(nullable = true)
+    private Long fileSize;
+
+    @Column(nullable = true)
+    private Long lastModified;
+
+    // Probed once at ingest and cleared whenever the file changes
+    @Column(nullable = true)
+    private Long durationMs;
+
+    @Column(nullable = true)
+    private Integer sampleRate;
+
+    @Column(nullable = true)
+    private Integer channels;
+
+    // Bits per second
+    @Column(nullable = true)
+    private Integer bitRate;
+
+    // Failed probes since the file last changed, and when the last one failed (epoch millis)
+    @Column(nullable = true)
+    private Integer probeFailures;
+
+    @Column(nullable = true)
+    private Long probeFailedAt;
+
     // Default constructor (required by JPA)
     public AudioFile() {
     }
@@ -129,4 +164,68 @@ public class AudioFile {
     public void setField(String field) {
         this.field = field;
     }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public Long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public Long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(Long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public Integer getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(Integer sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public Integer getChannels() {
+        return channels;
+    }
+
+    public void setChannels(Integer channels) {
+        this.channels = channels;
+    }
+
+    public Integer getBitRate() {
+        return bitRate;
+    }
+
+    public void setBitRate(Integer bitRate) {
+        this.bitRate = bitRate;
+    }
+
+    public Integer getProbeFailures() {
+        return probeFailures;
+    }
+
+    public void setProbeFailures(Integer probeFailures) {
+        this.probeFailures = probeFailures;
+    }
+
+    public Long getProbeFailedAt() {
+        return probeFailedAt;
+    }
+
+    public void setProbeFailedAt(Long probeFailedAt) {
+        this.probeFailedAt = probeFailedAt;
+    }
 }
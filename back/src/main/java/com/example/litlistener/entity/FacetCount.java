@@ -0,0 +1,61 @@
+package com.example.litlistener.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Number of audio files carrying one tag or field value. Maintained in the
+ * same transaction as the writes to audio_files, so reading the facets never
+ * has to group the whole table.
+ */
+@Entity
+@Table(name = "audio_facet_counts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_audio_facet_counts_value", columnNames = { "dimension", "facet_value" })
+})
+public class FacetCount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 16)
+    private String dimension;
+
+    @Column(name = "facet_value", nullable = false)
+    private String facetValue;
+
+    @Column(nullable = false)
+    private long fileCount;
+
+    // Getters and setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(String dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getFacetValue() {
+        return facetValue;
+    }
+
+    public void setFacetValue(String facetValue) {
+        this.facetValue = facetValue;
+    }
+
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    public void setFileCount(long fileCount) {
+        this.fileCount = fileCount;
+    }
+}
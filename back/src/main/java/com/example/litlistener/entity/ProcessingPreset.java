@@ -0,0 +1,134 @@
+package com.example.litlistener.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A named set of processing settings, applied to many files at once by the
+ * bulk processing endpoint. Fields mirror AudioProcessingRequest.
+ */
+@Entity
+@Table(name = "processing_presets")
+public class ProcessingPreset {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private double pitchFactor;
+
+    @Column(nullable = false)
+    private double amplificationFactor;
+
+    @Column(nullable = false)
+    private double compressionThreshold;
+
+    @Column(nullable = false)
+    private double compressionRatio;
+
+    @Column(nullable = false)
+    private double filterFrequency;
+
+    @Column(nullable = false)
+    private double filterBandwidth;
+
+    @Column(nullable = true, length = 16)
+    private String engine;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    // Default constructor (required by JPA)
+    public ProcessingPreset() {
+    }
+
+    public ProcessingPreset(String name) {
+        this.name = name;
+    }
+
+    // Getters and setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public double getPitchFactor() {
+        return pitchFactor;
+    }
+
+    public void setPitchFactor(double pitchFactor) {
+        this.pitchFactor = pitchFactor;
+    }
+
+    public double getAmplificationFactor() {
+        return amplificationFactor;
+    }
+
+    public void setAmplificationFactor(double amplificationFactor) {
+        this.amplificationFactor = amplificationFactor;
+    }
+
+    public double getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(double compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public double getCompressionRatio() {
+        return compressionRatio;
+    }
+
+    public void setCompressionRatio(double compressionRatio) {
+        this.compressionRatio = compressionRatio;
+    }
+
+    public double getFilterFrequency() {
+        return filterFrequency;
+    }
+
+    public void setFilterFrequency(double filterFrequency) {
+        this.filterFrequency = filterFrequency;
+    }
+
+    public double getFilterBandwidth() {
+        return filterBandwidth;
+    }
+
+    public void setFilterBandwidth(double filterBandwidth) {
+        this.filterBandwidth = filterBandwidth;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
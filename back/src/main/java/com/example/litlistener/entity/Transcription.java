@@ -2,31 +2,51 @@ package com.example.litlistener.entity;
 
 import jakarta.persistence.*;
 
+/**
+ * One timed piece of a transcript. Times are milliseconds from the start of
+ * the recording; a file's transcript is the list of its segments by start.
+ * Manual and Whisper segments are kept apart by source.
+ */
 @Entity
-@Table(name = "transcriptions")
+@Table(name = "transcription_segments", indexes = {
+        // Window queries seek to one file and range-scan by start time
+        @Index(name = "idx_transcription_segments_file_start", columnList = "audioFileId, startMs")
+})
 public class Transcription {
 
+    public static final String SOURCE_MANUAL = "manual";
+    public static final String SOURCE_WHISPER = "whisper";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @Column(nullable = false)
-    private String fileName;
+    private Long audioFileId;
 
     @Column(nullable = false)
-    private String fromTime;
+    private long startMs;
 
     @Column(nullable = false)
-    private String toTime;
+    private long endMs;
 
     @Column(nullable = false, columnDefinition = "TEXT")
     private String text;
 
-    @Column(nullable = true)
-    private String tag;
+    @Column(nullable = false, length = 16)
+    private String source;
+
+    // Default constructor (required by JPA)
+    public Transcription() {
+    }
 
-    @Column(nullable = true)
-    private String field;
+    public Transcription(Long audioFileId, String source, long startMs, long endMs, String text) {
+        this.audioFileId = audioFileId;
+        this.source = source;
+        this.startMs = startMs;
+        this.endMs = endMs;
+        this.text = text;
+    }
 
     // Getters and Setters
     public Long getId() {
@@ -37,28 +57,28 @@ public class Transcription {
         this.id = id;
     }
 
-    public String getFileName() {
-        return fileName;
+    public Long getAudioFileId() {
+        return audioFileId;
     }
 
-    public void setFileName(String fileName) {
-        this.fileName = fileName;
+    public void setAudioFileId(Long audioFileId) {
+        this.audioFileId = audioFileId;
     }
 
-    public String getFromTime() {
-        return fromTime;
+    public long getStartMs() {
+        return startMs;
     }
 
-    public void setFromTime(String fromTime) {
-        this.fromTime = fromTime;
+    public void setStartMs(long startMs) {
+        this.startMs = startMs;
     }
 
-    public String getToTime() {
-        return toTime;
+    public long getEndMs() {
+        return endMs;
     }
 
-    public void setToTime(String toTime) {
-        this.toTime = toTime;
+    public void setEndMs(long endMs) {
+        this.endMs = endMs;
     }
 
     public String getText() {
@@ -69,19 +89,11 @@ public class Transcription {
         this.text = text;
     }
 
-    public String getTag() {
-        return tag;
-    }
-
-    public void setTag(String tag) {
-        this.tag = tag;
-    }
-
-    public String getField() {
-        return field;
+    public String getSource() {
+        return source;
     }
 
-    public void setField(String field) {
-        this.field = field;
+    public void setSource(String source) {
+        this.source = source;
     }
 }
@@ -1,10 +1,64 @@
 package com.example.litlistener.repository;
 
 import com.example.litlistener.entity.AudioFile;
+import com.example.litlistener.response.TranscriptionSummaryResponse;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface AudioFileRepository extends JpaRepository<AudioFile, Long> {
+public interface AudioFileRepository extends JpaRepository<AudioFile, Long>, AudioFileRepositoryCustom {
     AudioFile findByName(String name);
+
+    boolean existsByName(String name);
+
+    // SELECT ... FOR UPDATE, so concurrent saves of one file compute facet deltas one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from AudioFile a where a.name = :name")
+    AudioFile findByNameForUpdate(@Param("name") String name);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from AudioFile a where a.id = :id")
+    AudioFile findByIdForUpdate(@Param("id") Long id);
+
+    // FROM/TO and category only, so a batch lookup never loads the transcript texts
+    @Query("select new com.example.litlistener.response.TranscriptionSummaryResponse("
+            + "a.name, a.fromField, a.toField, a.tag, a.field) from AudioFile a where a.name in :names")
+    List<TranscriptionSummaryResponse> findSummariesByNameIn(@Param("names") Collection<String> names);
+
+    @Query("select new com.example.litlistener.response.TranscriptionSummaryResponse("
+            + "a.name, a.fromField, a.toField, a.tag, a.field) from AudioFile a where a.id in :ids")
+    List<TranscriptionSummaryResponse> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    List<AudioFileSyncView> findAllProjectedBy();
+
+    List<AudioFile> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<AudioFileSyncView> findByPathIn(Collection<String> paths);
+
+    List<AudioFileSyncView> findProjectedByNameIn(Collection<String> names);
+
+    // Paths only, for bulk processing
+    @Query("select a.path from AudioFile a where a.id in :ids order by a.name")
+    List<String> findPathsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Either filter may be null
+    @Query("select a.path from AudioFile a where (:tag is null or a.tag = :tag) "
+            + "and (:field is null or a.field = :field) order by a.name")
+    List<String> findPathsByTagAndField(@Param("tag") String tag, @Param("field") String field);
+
+    @Query("select a.tag as facetValue, count(a) as fileCount from AudioFile a "
+            + "where a.id in :ids and a.tag is not null and a.tag <> '' group by a.tag")
+    List<FacetCountView> countTagsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select a.field as facetValue, count(a) as fileCount from AudioFile a "
+            + "where a.id in :ids and a.field is not null and a.field <> '' group by a.field")
+    List<FacetCountView> countFieldsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,15 @@
+package com.example.litlistener.repository;
+
+import com.example.litlistener.response.AudioFileSummaryResponse;
+
+import java.util.List;
+
+public interface AudioFileRepositoryCustom {
+
+    /**
+     * Keyset-paginated listing of slim summaries. Rows come after the given
+     * sort key (name or id) in the given direction; any filter may be null.
+     */
+    List<AudioFileSummaryResponse> findSummaries(String tag, String field, String namePrefix,
+            boolean sortById, boolean descending, Object afterKey, int limit);
+}
@@ -0,0 +1,70 @@
+package com.example.litlistener.repository;
+
+import com.example.litlistener.entity.AudioFile;
+import com.example.litlistener.response.AudioFileSummaryResponse;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AudioFileRepositoryImpl implements AudioFileRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public List<AudioFileSummaryResponse> findSummaries(String tag, String field, String namePrefix,
+            boolean sortById, boolean descending, Object afterKey, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AudioFileSummaryResponse> query = cb.createQuery(AudioFileSummaryResponse.class);
+        Root<AudioFile> root = query.from(AudioFile.class);
+
+        Path<String> transcript = root.get("transcript");
+        Expression<Boolean> hasTranscript = cb.<Boolean>selectCase()
+                .when(cb.and(cb.isNotNull(transcript), cb.notEqual(transcript, "")), true)
+                .otherwise(false);
+
+        // Only the slim columns are selected, never the TEXT bodies
+        query.select(cb.construct(AudioFileSummaryResponse.class,
+                root.get("id"), root.get("name"), root.get("tag"), root.get("field"), hasTranscript,
+                root.get("durationMs"), root.get("sampleRate"), root.get("channels"), root.get("bitRate")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (tag != null) {
+            predicates.add(cb.equal(root.get("tag"), tag));
+        }
+        if (field != null) {
+            predicates.add(cb.equal(root.get("field"), field));
+        }
+        if (namePrefix != null) {
+            predicates.add(cb.like(root.get("name"), escapeLike(namePrefix) + "%", '\\'));
+        }
+
+        Path<Comparable> key = root.get(sortById ? "id" : "name");
+        if (afterKey != null) {
+            predicates.add(descending
+                    ? cb.lessThan(key, (Comparable) afterKey)
+                    : cb.greaterThan(key, (Comparable) afterKey));
+        }
+
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(descending ? cb.desc(key) : cb.asc(key));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.litlistener.repository;
+
+/**
+ * Closed projection with just the columns the folder sync compares, so the
+ * TEXT columns are never loaded during a sync.
+ */
+public interface AudioFileSyncView {
+    Long getId();
+
+    String getName();
+
+    String getPath();
+
+    Long getFileSize();
+
+    Long getLastModified();
+
+    // Null until the file's metadata has been probed
+    Integer getSampleRate();
+
+    Integer getProbeFailures();
+
+    Long getProbeFailedAt();
+}
@@ -0,0 +1,12 @@
+package com.example.litlistener.repository;
+
+import com.example.litlistener.entity.FacetCount;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface FacetCountRepository extends JpaRepository<FacetCount, Long> {
+
+    List<FacetCount> findByFileCountGreaterThanOrderByFileCountDescFacetValueAsc(long fileCount);
+}
@@ -0,0 +1,10 @@
+package com.example.litlistener.repository;
+
+/**
+ * One group of a tag or field count over a set of audio files.
+ */
+public interface FacetCountView {
+    String getFacetValue();
+
+    Long getFileCount();
+}
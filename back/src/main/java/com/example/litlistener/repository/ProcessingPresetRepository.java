@@ -0,0 +1,14 @@
+package com.example.litlistener.repository;
+
+import com.example.litlistener.entity.ProcessingPreset;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ProcessingPresetRepository extends JpaRepository<ProcessingPreset, Long> {
+
+    ProcessingPreset findByName(String name);
+
+    List<ProcessingPreset> findAllByOrderByNameAsc();
+}
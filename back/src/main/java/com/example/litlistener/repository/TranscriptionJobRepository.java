@@ -0,0 +1,41 @@
+package com.example.litlistener.repository;
+
+import com.example.litlistener.entity.TranscriptionJob;
+import com.example.litlistener.entity.TranscriptionJob.Status;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface TranscriptionJobRepository extends JpaRepository<TranscriptionJob, Long> {
+
+    List<TranscriptionJob> findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(Status status,
+            Instant now, Pageable pageable);
+
+    long countByStatus(Status status);
+
+    @Query("select j.fileName from TranscriptionJob j where j.fileName in :fileNames and j.status in :statuses")
+    List<String> findFileNamesWithStatus(@Param("fileNames") Collection<String> fileNames,
+            @Param("statuses") Collection<Status> statuses);
+
+    // Compare-and-set, so a job is only ever claimed by one worker
+    @Transactional
+    @Modifying
+    @Query("update TranscriptionJob j set j.status = :running, j.startedAt = :now, j.attempts = j.attempts + 1 "
+            + "where j.id = :id and j.status = :pending")
+    int claim(@Param("id") Long id, @Param("now") Instant now, @Param("pending") Status pending,
+            @Param("running") Status running);
+
+    // Jobs left running by a previous process were interrupted and can be retried
+    @Transactional
+    @Modifying
+    @Query("update TranscriptionJob j set j.status = :pending where j.status = :running")
+    int requeueInterrupted(@Param("pending") Status pending, @Param("running") Status running);
+}
@@ -2,6 +2,28 @@ package com.example.litlistener.repository;
 
 import com.example.litlistener.entity.Transcription;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface TranscriptionRepository extends JpaRepository<Transcription, Long> {
+
+    List<Transcription> findByAudioFileIdOrderByStartMs(Long audioFileId);
+
+    // Segments that overlap the half-open window [fromMs, toMs)
+    @Query("select t from Transcription t where t.audioFileId = :audioFileId "
+            + "and t.startMs < :toMs and t.endMs > :fromMs order by t.startMs")
+    List<Transcription> findOverlapping(@Param("audioFileId") Long audioFileId, @Param("fromMs") long fromMs,
+            @Param("toMs") long toMs);
+
+    @Modifying
+    @Query("delete from Transcription t where t.audioFileId = :audioFileId and t.source = :source")
+    int deleteByAudioFileIdAndSource(@Param("audioFileId") Long audioFileId, @Param("source") String source);
+
+    @Modifying
+    @Query("delete from Transcription t where t.audioFileId in :audioFileIds")
+    int deleteByAudioFileIdIn(@Param("audioFileIds") Collection<Long> audioFileIds);
 }
@@ -9,6 +9,7 @@ public class AudioProcessingRequest {
     private double compressionRatio;
     private double filterFrequency;
     private double filterBandwidth;
+    private String engine; // "ffmpeg" (default) or "jvm"
 
     // Getters and Setters
     public String getFilePath() {
@@ -74,4 +75,12 @@ public class AudioProcessingRequest {
     public void setFilterBandwidth(double filterBandwidth) {
         this.filterBandwidth = filterBandwidth;
     }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
 }
@@ -0,0 +1,43 @@
+package com.example.litlistener.request;
+
+import java.util.List;
+
+public class BulkProcessingRequest {
+    private String preset;
+    private List<Long> fileIds; // an explicit selection; when empty, the tag/field filter picks the files
+    private String tag;
+    private String field;
+
+    // Getters and Setters
+    public String getPreset() {
+        return preset;
+    }
+
+    public void setPreset(String preset) {
+        this.preset = preset;
+    }
+
+    public List<Long> getFileIds() {
+        return fileIds;
+    }
+
+    public void setFileIds(List<Long> fileIds) {
+        this.fileIds = fileIds;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.litlistener.request;
+
+import java.util.List;
+
+public class TranscriptionBatchRequest {
+    private List<String> fileNames;
+    private List<Long> ids;
+
+    // Getters and Setters
+    public List<String> getFileNames() {
+        return fileNames;
+    }
+
+    public void setFileNames(List<String> fileNames) {
+        this.fileNames = fileNames;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.litlistener.request;
 
+import java.util.List;
+
 public class TranscriptionRequest {
     private String fileName;
     private String from;
@@ -7,6 +9,8 @@ public class TranscriptionRequest {
     private String transcription;
     private String tag;
     private String field;
+    // Optional timed transcript; replaces the file's manual segments when present
+    private List<TranscriptionSegmentRequest> segments;
 
     // Getters and Setters
     public String getFileName() {
@@ -56,4 +60,12 @@ public class TranscriptionRequest {
     public void setField(String field) {
         this.field = field;
     }
+
+    public List<TranscriptionSegmentRequest> getSegments() {
+        return segments;
+    }
+
+    public void setSegments(List<TranscriptionSegmentRequest> segments) {
+        this.segments = segments;
+    }
 }
@@ -0,0 +1,32 @@
+package com.example.litlistener.request;
+
+public class TranscriptionSegmentRequest {
+    private long startMs;
+    private long endMs;
+    private String text;
+
+    // Getters and Setters
+    public long getStartMs() {
+        return startMs;
+    }
+
+    public void setStartMs(long startMs) {
+        this.startMs = startMs;
+    }
+
+    public long getEndMs() {
+        return endMs;
+    }
+
+    public void setEndMs(long endMs) {
+        this.endMs = endMs;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+}
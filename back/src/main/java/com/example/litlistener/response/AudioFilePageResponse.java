@@ -0,0 +1,30 @@
+package com.example.litlistener.response;
+
+import java.util.List;
+
+public class AudioFilePageResponse {
+    private List<AudioFileSummaryResponse> items;
+    private String nextCursor; // null on the last page
+
+    public AudioFilePageResponse(List<AudioFileSummaryResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<AudioFileSummaryResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<AudioFileSummaryResponse> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.litlistener.response;
+
+public class AudioFileSummaryResponse {
+    private Long id;
+    private String name;
+    private String tag;
+    private String field;
+    private boolean hasTranscript;
+    private Long durationMs;
+    private Integer sampleRate;
+    private Integer channels;
+    private Integer bitRate;
+
+    // Constructor (also used by JPA constructor expressions)
+    public AudioFileSummaryResponse(Long id, String name, String tag, String field, Boolean hasTranscript,
+                                    Long durationMs, Integer sampleRate, Integer channels, Integer bitRate) {
+        this.id = id;
+        this.name = name;
+        this.tag = tag;
+        this.field = field;
+        this.hasTranscript = Boolean.TRUE.equals(hasTranscript);
+        this.durationMs = durationMs;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.bitRate = bitRate;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public boolean isHasTranscript() {
+        return hasTranscript;
+    }
+
+    public void setHasTranscript(boolean hasTranscript) {
+        this.hasTranscript = hasTranscript;
+    }
+
+    public Long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(Long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public Integer getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(Integer sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public Integer getChannels() {
+        return channels;
+    }
+
+    public void setChannels(Integer channels) {
+        this.channels = channels;
+    }
+
+    public Integer getBitRate() {
+        return bitRate;
+    }
+
+    public void setBitRate(Integer bitRate) {
+        this.bitRate = bitRate;
+    }
+}
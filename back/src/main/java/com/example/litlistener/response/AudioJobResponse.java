@@ -0,0 +1,80 @@
+package com.example.litlistener.response;
+
+public class AudioJobResponse {
+    private String jobId;
+    private String status;
+    private String url;
+    private String error;
+    // Null until FFmpeg reports, and for results served from the cache
+    private Double percent;
+    private Double speed;
+    private Long etaSeconds;
+
+    public AudioJobResponse(String jobId, String status, String url, String error, Double percent, Double speed,
+            Long etaSeconds) {
+        this.jobId = jobId;
+        this.status = status;
+        this.url = url;
+        this.error = error;
+        this.percent = percent;
+        this.speed = speed;
+        this.etaSeconds = etaSeconds;
+    }
+
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Double getPercent() {
+        return percent;
+    }
+
+    public void setPercent(Double percent) {
+        this.percent = percent;
+    }
+
+    public Double getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(Double speed) {
+        this.speed = speed;
+    }
+
+    public Long getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    public void setEtaSeconds(Long etaSeconds) {
+        this.etaSeconds = etaSeconds;
+    }
+}
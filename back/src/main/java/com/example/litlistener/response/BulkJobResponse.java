@@ -0,0 +1,39 @@
+package com.example.litlistener.response;
+
+// A bulk job as accepted; GET /api/audio/bulk/{jobId} reports its progress
+public class BulkJobResponse {
+    private String jobId;
+    private String status;
+    private int total;
+
+    public BulkJobResponse(String jobId, String status, int total) {
+        this.jobId = jobId;
+        this.status = status;
+        this.total = total;
+    }
+
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.litlistener.response;
+
+public class BulkProcessingItemResponse {
+    private String file;
+    private String status;
+    private String url;
+    private String error;
+    private Long durationMs;
+
+    public BulkProcessingItemResponse(String file, String status, String url, String error, Long durationMs) {
+        this.file = file;
+        this.status = status;
+        this.url = url;
+        this.error = error;
+        this.durationMs = durationMs;
+    }
+
+    // Getters and Setters
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(Long durationMs) {
+        this.durationMs = durationMs;
+    }
+}
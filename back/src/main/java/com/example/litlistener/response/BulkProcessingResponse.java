@@ -0,0 +1,152 @@
+package com.example.litlistener.response;
+
+import java.util.List;
+
+public class BulkProcessingResponse {
+    private String jobId;
+    private String preset;
+    private String status;
+    private int total;
+    private int queued;
+    private int running;
+    private int done;
+    private int failed;
+    private int cancelled;
+    private long elapsedMs;
+    private double filesPerSecond;
+    private double sourceMbPerSecond;
+    private Long etaSeconds; // null until the first file finishes
+    private List<BulkProcessingItemResponse> items;
+
+    public BulkProcessingResponse(String jobId, String preset, String status, int total, int queued, int running,
+                                  int done, int failed, int cancelled, long elapsedMs, double filesPerSecond,
+                                  double sourceMbPerSecond, Long etaSeconds, List<BulkProcessingItemResponse> items) {
+        this.jobId = jobId;
+        this.preset = preset;
+        this.status = status;
+        this.total = total;
+        this.queued = queued;
+        this.running = running;
+        this.done = done;
+        this.failed = failed;
+        this.cancelled = cancelled;
+        this.elapsedMs = elapsedMs;
+        this.filesPerSecond = filesPerSecond;
+        this.sourceMbPerSecond = sourceMbPerSecond;
+        this.etaSeconds = etaSeconds;
+        this.items = items;
+    }
+
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getPreset() {
+        return preset;
+    }
+
+    public void setPreset(String preset) {
+        this.preset = preset;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public void setQueued(int queued) {
+        this.queued = queued;
+    }
+
+    public int getRunning() {
+        return running;
+    }
+
+    public void setRunning(int running) {
+        this.running = running;
+    }
+
+    public int getDone() {
+        return done;
+    }
+
+    public void setDone(int done) {
+        this.done = done;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public int getCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(int cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public double getFilesPerSecond() {
+        return filesPerSecond;
+    }
+
+    public void setFilesPerSecond(double filesPerSecond) {
+        this.filesPerSecond = filesPerSecond;
+    }
+
+    public double getSourceMbPerSecond() {
+        return sourceMbPerSecond;
+    }
+
+    public void setSourceMbPerSecond(double sourceMbPerSecond) {
+        this.sourceMbPerSecond = sourceMbPerSecond;
+    }
+
+    public Long getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    public void setEtaSeconds(Long etaSeconds) {
+        this.etaSeconds = etaSeconds;
+    }
+
+    public List<BulkProcessingItemResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<BulkProcessingItemResponse> items) {
+        this.items = items;
+    }
+}
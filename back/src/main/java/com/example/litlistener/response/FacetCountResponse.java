@@ -0,0 +1,28 @@
+package com.example.litlistener.response;
+
+public class FacetCountResponse {
+    private String value;
+    private long count;
+
+    public FacetCountResponse(String value, long count) {
+        this.value = value;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.litlistener.response;
+
+import java.util.List;
+
+public class FacetsResponse {
+    private List<FacetCountResponse> tags;
+    private List<FacetCountResponse> fields;
+
+    public FacetsResponse(List<FacetCountResponse> tags, List<FacetCountResponse> fields) {
+        this.tags = tags;
+        this.fields = fields;
+    }
+
+    // Getters and Setters
+    public List<FacetCountResponse> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<FacetCountResponse> tags) {
+        this.tags = tags;
+    }
+
+    public List<FacetCountResponse> getFields() {
+        return fields;
+    }
+
+    public void setFields(List<FacetCountResponse> fields) {
+        this.fields = fields;
+    }
+}
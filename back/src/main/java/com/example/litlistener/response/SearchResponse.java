@@ -0,0 +1,30 @@
+package com.example.litlistener.response;
+
+import java.util.List;
+
+public class SearchResponse {
+    private List<SearchResultResponse> results;
+    private double tookMs;
+
+    public SearchResponse(List<SearchResultResponse> results, double tookMs) {
+        this.results = results;
+        this.tookMs = tookMs;
+    }
+
+    // Getters and Setters
+    public List<SearchResultResponse> getResults() {
+        return results;
+    }
+
+    public void setResults(List<SearchResultResponse> results) {
+        this.results = results;
+    }
+
+    public double getTookMs() {
+        return tookMs;
+    }
+
+    public void setTookMs(double tookMs) {
+        this.tookMs = tookMs;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.litlistener.response;
+
+public class SearchResultResponse {
+    private Long id;
+    private String name;
+    private String tag;
+    private String field;
+    private float score;
+
+    public SearchResultResponse(Long id, String name, String tag, String field, float score) {
+        this.id = id;
+        this.name = name;
+        this.tag = tag;
+        this.field = field;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    public void setScore(float score) {
+        this.score = score;
+    }
+}
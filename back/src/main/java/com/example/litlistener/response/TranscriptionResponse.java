@@ -1,6 +1,7 @@
 package com.example.litlistener.response;
 
 public class TranscriptionResponse {
+    private String fileName;
     private String from;
     private String to;
     private String transcription;
@@ -9,8 +10,9 @@ public class TranscriptionResponse {
     private String field;
 
     // Constructor
-    public TranscriptionResponse(String from, String to, String transcription, String whisper, String tag,
-            String field) {
+    public TranscriptionResponse(String fileName, String from, String to, String transcription, String whisper,
+            String tag, String field) {
+        this.fileName = fileName;
         this.from = from;
         this.to = to;
         this.transcription = transcription;
@@ -20,6 +22,14 @@ public class TranscriptionResponse {
     }
 
     // Getters and Setters
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
     public String getFrom() {
         return from;
     }
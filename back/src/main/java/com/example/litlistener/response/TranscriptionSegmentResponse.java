@@ -0,0 +1,48 @@
+package com.example.litlistener.response;
+
+public class TranscriptionSegmentResponse {
+    private long startMs;
+    private long endMs;
+    private String text;
+    private String source;
+
+    public TranscriptionSegmentResponse(long startMs, long endMs, String text, String source) {
+        this.startMs = startMs;
+        this.endMs = endMs;
+        this.text = text;
+        this.source = source;
+    }
+
+    // Getters and Setters
+    public long getStartMs() {
+        return startMs;
+    }
+
+    public void setStartMs(long startMs) {
+        this.startMs = startMs;
+    }
+
+    public long getEndMs() {
+        return endMs;
+    }
+
+    public void setEndMs(long endMs) {
+        this.endMs = endMs;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+}
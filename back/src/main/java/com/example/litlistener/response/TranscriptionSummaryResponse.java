@@ -0,0 +1,60 @@
+package com.example.litlistener.response;
+
+// The FROM/TO and category of a file, without its transcript texts
+public class TranscriptionSummaryResponse {
+    private String fileName;
+    private String from;
+    private String to;
+    private String tag;
+    private String field;
+
+    // Constructor (also used by JPA constructor expressions)
+    public TranscriptionSummaryResponse(String fileName, String from, String to, String tag, String field) {
+        this.fileName = fileName;
+        this.from = from;
+        this.to = to;
+        this.tag = tag;
+        this.field = field;
+    }
+
+    // Getters and Setters
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.entity.AudioFile;
+import com.example.litlistener.repository.AudioFileRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Read-through cache in front of the name and id lookups on audio_files.
+ * Caffeine bounds each cache with W-TinyLFU, so a burst of one-off lookups
+ * (a sync, a scan over many files) does not push out the files someone is
+ * working on. Entities carry the transcript and Whisper text, so each cache
+ * is bounded by the approximate heap its entries take rather than by count.
+ * Cached entities are shared between readers and must not be modified;
+ * writers load from the repository and invalidate afterwards.
+ * Hit and miss counts are published as cache.gets{cache=audio.files.*}.
+ */
+@Service
+public class AudioFileCacheService {
+
+    @Autowired
+    private AudioFileRepository audioFileRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${audio.file-cache.max-mb:64}")
+    private long maxMb;
+
+    // Backstop for rows changed outside this application
+    @Value("${audio.file-cache.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    private Cache<String, AudioFile> byName;
+    private Cache<Long, AudioFile> byId;
+
+    @PostConstruct
+    void init() {
+        byName = newCache();
+        byId = newCache();
+        CaffeineCacheMetrics.monitor(meterRegistry, byName, "audio.files.by-name");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "audio.files.by-id");
+    }
+
+    private <K> Cache<K, AudioFile> newCache() {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxMb * 1024 * 1024)
+                .weigher((K key, AudioFile audioFile) -> weigh(audioFile))
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+    }
+
+    // Approximate bytes: a fixed allowance for the entity, its boxed numbers and the cache entry, plus the strings
+    static int weigh(AudioFile audioFile) {
+        long bytes = 400 + sizeOf(audioFile.getName()) + sizeOf(audioFile.getPath())
+                + sizeOf(audioFile.getToField()) + sizeOf(audioFile.getFromField())
+                + sizeOf(audioFile.getTranscript()) + sizeOf(audioFile.getWhisper())
+                + sizeOf(audioFile.getTag()) + sizeOf(audioFile.getField());
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    // Header and array overhead, and two bytes a char for text that is not Latin-1
+    private static long sizeOf(String value) {
+        return value != null ? 40 + 2L * value.length() : 0;
+    }
+
+    public AudioFile findByName(String name) {
+        // A missing file yields null, which Caffeine does not store
+        return byName.get(name, audioFileRepository::findByName);
+    }
+
+    public AudioFile findById(Long id) {
+        return byId.get(id, key -> audioFileRepository.findById(key).orElse(null));
+    }
+
+    /**
+     * Drops every entry for a file that was just saved, including one cached
+     * under its previous name if it was renamed.
+     */
+    public void invalidate(AudioFile audioFile) {
+        byName.invalidate(audioFile.getName());
+        if (audioFile.getId() != null) {
+            invalidateIds(List.of(audioFile.getId()));
+        }
+    }
+
+    public void invalidateNames(Collection<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        Set<String> nameSet = toSet(names);
+        byName.invalidateAll(nameSet);
+        byId.asMap().values().removeIf(audioFile -> nameSet.contains(audioFile.getName()));
+    }
+
+    public void invalidateIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Set<Long> idSet = toSet(ids);
+        byId.invalidateAll(idSet);
+        byName.asMap().values().removeIf(audioFile -> idSet.contains(audioFile.getId()));
+    }
+
+    private static <T> Set<T> toSet(Iterable<? extends T> values) {
+        Set<T> set = new HashSet<>();
+        values.forEach(set::add);
+        return set;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.litlistener.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Maps between audio URLs sent by the frontend and files below the audio folder.
+ */
+@Service
+public class AudioFileLocator {
+
+    public static final String STREAM_PATH = "/api/audio/stream";
+
+    @Value("${audio.folder:/app/audio}")
+    private String audioFolder;
+
+    @Value("${audio.cache.dir:/app/audio/renditions}")
+    private String cacheDir;
+
+    public Path getAudioRoot() {
+        return Paths.get(audioFolder).toAbsolutePath().normalize();
+    }
+
+    /**
+     * The scheme, host and context path of the current request.
+     */
+    public String currentContextUrl() {
+        return ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+    }
+
+    /**
+     * Resolves a stream URL, a legacy static URL or a bare file name to a path
+     * inside the audio folder.
+     */
+    public Path resolveUrl(String url) {
+        if (url == null || url.isEmpty()) {
+            throw new IllegalArgumentException("URL is null or empty");
+        }
+
+        // Keep the path below the host so processed renditions in subfolders resolve too
+        String path = URI.create(url.replace(" ", "%20")).getPath();
+        if (path.startsWith(STREAM_PATH + "/")) {
+            path = path.substring(STREAM_PATH.length());
+        }
+        return resolveRelative(path);
+    }
+
+    /**
+     * Resolves a path relative to the audio folder, rejecting anything that
+     * would escape it.
+     */
+    public Path resolveRelative(String relativePath) {
+        Path root = getAudioRoot();
+        Path resolved = root.resolve(relativePath.replaceFirst("^/+", "")).normalize();
+        if (!resolved.startsWith(root)) {
+            throw new IllegalArgumentException("Path escapes the audio folder: " + relativePath);
+        }
+        return resolved;
+    }
+
+    /**
+     * Builds the stream URL for a file inside the audio folder, relative to the
+     * host the current request came in on.
+     */
+    public String toStreamUrl(Path file) {
+        return toStreamUrl(file, currentContextUrl());
+    }
+
+    /**
+     * Same, against a context URL taken earlier with currentContextUrl(), for
+     * threads that are not serving a request.
+     */
+    public String toStreamUrl(Path file, String contextUrl) {
+        String relativePath = getAudioRoot().relativize(file.toAbsolutePath().normalize()).toString();
+        return UriComponentsBuilder.fromUriString(contextUrl)
+                .path(STREAM_PATH)
+                .pathSegment(relativePath.replace(File.separatorChar, '/').split("/"))
+                .build()
+                .encode()
+                .toUriString();
+    }
+
+    /**
+     * Processed renditions are content-addressed, so their bytes never change.
+     */
+    public boolean isRendition(Path file) {
+        return file.toAbsolutePath().normalize().startsWith(Paths.get(cacheDir).toAbsolutePath().normalize());
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.entity.AudioFile;
+import com.example.litlistener.repository.AudioFileRepository;
+import com.example.litlistener.request.AudioFileListRequest;
+import com.example.litlistener.response.AudioFilePageResponse;
+import com.example.litlistener.response.AudioFileSummaryResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Base64;
+import java.util.List;
+
+@Service
+public class AudioFileService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AudioFileService.class);
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private AudioFileRepository audioFileRepository;
+
+    @Autowired
+    private AudioFileCacheService audioFileCacheService;
+
+    @Autowired
+    private FacetService facetService;
+
+    @Autowired
+    private AudioMetadataService audioMetadataService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    /**
+     * Creates or replaces a row, keeping the facet counts, the lookup cache and
+     * the search index in step with it.
+     */
+    public AudioFile saveAudioFile(AudioFile audioFile) {
+        probeIfMissing(audioFile);
+        AudioFile saved = transactionTemplate.execute(status -> {
+            // Locked, so a concurrent save cannot move the same old tag and field twice
+            AudioFile existing = audioFile.getId() == null ? null
+                    : audioFileRepository.findByIdForUpdate(audioFile.getId());
+            facetService.recordChange(existing == null ? null : existing.getTag(),
+                    existing == null ? null : existing.getField(), audioFile.getTag(), audioFile.getField());
+            return audioFileRepository.save(audioFile);
+        });
+        audioFileCacheService.invalidate(saved);
+        searchIndexService.index(saved);
+        return saved;
+    }
+
+    // Uploaded rows get the same metadata as synced ones, read once before they are stored
+    private void probeIfMissing(AudioFile audioFile) {
+        if (audioFile.getSampleRate() != null || audioFile.getPath() == null
+                || !Files.isRegularFile(Paths.get(audioFile.getPath()))) {
+            return;
+        }
+        try {
+            AudioMetadataService.AudioMetadata metadata = audioMetadataService.probe(Paths.get(audioFile.getPath()));
+            audioFile.setDurationMs(metadata.durationMs());
+            audioFile.setSampleRate(metadata.sampleRate());
+            audioFile.setChannels(metadata.channels());
+            audioFile.setBitRate(metadata.bitRate());
+        } catch (Exception e) {
+            logger.warn("Could not probe {}: {}", audioFile.getPath(), e.getMessage());
+        }
+    }
+
+    /**
+     * Returns one page of slim summaries. Pages are addressed by the sort key of
+     * the last row (keyset pagination), so every page costs the same no matter
+     * how deep into the table it is.
+     */
+    public AudioFilePageResponse listAudioFiles(AudioFileListRequest request) {
+        boolean sortById = "id".equalsIgnoreCase(request.getSort());
+        if (!sortById && !"name".equalsIgnoreCase(request.getSort())) {
+            throw new IllegalArgumentException("Unsupported sort: " + request.getSort());
+        }
+        boolean descending = "desc".equalsIgnoreCase(request.getDirection());
+        int size = Math.max(1, Math.min(request.getSize(), MAX_PAGE_SIZE));
+        Object afterKey = decodeCursor(request.getCursor(), sortById);
+
+        // Fetch one extra row to find out whether another page follows
+        List<AudioFileSummaryResponse> rows = audioFileRepository.findSummaries(
+                blankToNull(request.getTag()), blankToNull(request.getField()), blankToNull(request.getNamePrefix()),
+                sortById, descending, afterKey, size + 1);
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            AudioFileSummaryResponse last = rows.get(size - 1);
+            nextCursor = encodeCursor(sortById ? String.valueOf(last.getId()) : last.getName());
+        }
+        return new AudioFilePageResponse(rows, nextCursor);
+    }
+
+    private static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object decodeCursor(String cursor, boolean sortById) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return sortById ? (Object) Long.valueOf(key) : key;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
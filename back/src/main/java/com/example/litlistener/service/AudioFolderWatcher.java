@@ -0,0 +1,314 @@
+package com.example.litlistener.service;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Watches the audio folder, and its subfolders down to the depth folder sync
+ * scans, and applies file events to the database as they happen. Events are
+ * debounced until a file has been quiet and its size stable
+ * for a while, so files that are still being copied are not picked up. If the
+ * watch queue overflows, a full (incremental) folder sync is run instead; one
+ * also runs right after the watch starts, for files added before it did.
+ */
+@Service
+public class AudioFolderWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(AudioFolderWatcher.class);
+
+    @Autowired
+    private StartupService startupService;
+
+    @Value("${audio.watch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audio.watch.debounce-ms:2000}")
+    private long debounceMs;
+
+    // Periodic full reconciliation in addition to events; 0 disables it
+    @Value("${audio.watch.reconcile-interval-seconds:0}")
+    private long reconcileIntervalSeconds;
+
+    @Value("${audio.cache.dir:/app/audio/renditions}")
+    private String cacheDir;
+
+    // Same setting as the folder sync: 1 watches only the top level of the folder
+    @Value("${audio.sync.max-depth:1}")
+    private int maxDepth;
+
+    private final Map<Path, PendingEvent> pending = new ConcurrentHashMap<>();
+    // Watched folders by their key; a key only reports the names of its own entries
+    private final Map<WatchKey, Path> watchedDirs = new ConcurrentHashMap<>();
+    private final AtomicBoolean reconcileRequested = new AtomicBoolean();
+
+    private WatchService watchService;
+    private ScheduledExecutorService scheduler;
+    private Thread watchThread;
+    private Path audioFolder;
+    private Path renditions;
+
+    private record PendingEvent(long lastEventNanos, long lastSize) {
+    }
+
+    public synchronized void start(String audioFolderPath) {
+        if (!enabled || watchService != null) {
+            return;
+        }
+        audioFolder = Paths.get(audioFolderPath).toAbsolutePath().normalize();
+        if (!Files.isDirectory(audioFolder)) {
+            logger.warn("Not watching {}: folder not found", audioFolder);
+            return;
+        }
+
+        renditions = Paths.get(cacheDir).toAbsolutePath().normalize();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            watchedDirs.put(register(audioFolder), audioFolder);
+        } catch (IOException e) {
+            logger.warn("Could not watch {}: {}", audioFolder, e.getMessage());
+            return;
+        }
+        registerSubfolders(audioFolder);
+        // Files added between the startup sync and the registration above sent no events
+        reconcileRequested.set(true);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audio-folder-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tick = Math.max(100, debounceMs / 4);
+        scheduler.scheduleWithFixedDelay(this::flush, tick, tick, TimeUnit.MILLISECONDS);
+        if (reconcileIntervalSeconds > 0) {
+            scheduler.scheduleWithFixedDelay(() -> reconcileRequested.set(true),
+                    reconcileIntervalSeconds, reconcileIntervalSeconds, TimeUnit.SECONDS);
+        }
+
+        watchThread = new Thread(this::watchLoop, "audio-folder-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        logger.info("Watching {} and {} subfolder(s) for changes (debounce {} ms)", audioFolder,
+                watchedDirs.size() - 1, debounceMs);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.debug("Error closing watch service: {}", e.getMessage());
+        }
+        scheduler.shutdownNow();
+        watchService = null;
+        watchedDirs.clear();
+    }
+
+    private WatchKey register(Path dir) throws IOException {
+        return dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Registers the folders below dir that can hold files folder sync picks
+     * up, i.e. down to max-depth - 1 below the audio folder, skipping the
+     * rendition cache. A folder that cannot be watched is still synced by
+     * reconciliation.
+     */
+    private void registerSubfolders(Path dir) {
+        int depth = Math.max(0, maxDepth - 1 - depthOf(dir));
+        if (depth == 0) {
+            return;
+        }
+        try {
+            Files.walkFileTree(dir, EnumSet.noneOf(FileVisitOption.class), depth, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path subfolder, BasicFileAttributes attrs) {
+                    return watchFolder(subfolder) ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+                }
+
+                // Folders at the depth limit are visited as files
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isDirectory()) {
+                        watchFolder(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    logger.warn("Could not watch {}: {}", file, e.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Could not watch the folders below {}: {}", dir, e.getMessage());
+        }
+    }
+
+    // Returns false for folders that must not be descended into
+    private boolean watchFolder(Path dir) {
+        Path folder = dir.toAbsolutePath().normalize();
+        if (folder.startsWith(renditions)) {
+            return false;
+        }
+        if (!folder.equals(audioFolder)) {
+            try {
+                watchedDirs.put(register(folder), folder);
+            } catch (IOException e) {
+                logger.warn("Could not watch {}: {}", folder, e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    // Drops the watches on dir and the folders below it; a folder moved elsewhere would keep reporting
+    private boolean unwatch(Path dir) {
+        boolean removed = false;
+        for (Map.Entry<WatchKey, Path> entry : watchedDirs.entrySet()) {
+            if (entry.getValue().startsWith(dir) && !entry.getValue().equals(audioFolder)) {
+                entry.getKey().cancel();
+                watchedDirs.remove(entry.getKey());
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    private int depthOf(Path dir) {
+        return dir.equals(audioFolder) ? 0 : audioFolder.relativize(dir).getNameCount();
+    }
+
+    private void watchLoop() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path dir = watchedDirs.get(key);
+            if (dir == null) {
+                key.cancel();
+                continue;
+            }
+
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // Events were lost, only a full reconciliation can tell what changed
+                    logger.warn("Watch queue overflowed for {}, scheduling a full sync", audioFolder);
+                    reconcileRequested.set(true);
+                    continue;
+                }
+
+                Path path = dir.resolve((Path) event.context());
+                if (path.startsWith(renditions) || path.getFileName().toString().endsWith(".tmp")) {
+                    continue;
+                }
+                if (Files.isDirectory(path)) {
+                    // Watch the new folder from now on; whatever was copied in with it is only visible to a scan
+                    if (depthOf(path) < maxDepth) {
+                        watchFolder(path);
+                        registerSubfolders(path);
+                    }
+                    reconcileRequested.set(true);
+                    continue;
+                }
+                if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE && unwatch(path)) {
+                    // A watched folder was deleted or moved away, taking its files with it without events
+                    reconcileRequested.set(true);
+                    continue;
+                }
+                pending.put(path, new PendingEvent(System.nanoTime(), sizeOf(path)));
+            }
+
+            if (!key.reset()) {
+                watchedDirs.remove(key);
+                if (dir.equals(audioFolder)) {
+                    logger.warn("Watch on {} is no longer valid", audioFolder);
+                    return;
+                }
+                // A subfolder was deleted or moved away, possibly taking files with it without events
+                reconcileRequested.set(true);
+            }
+        }
+    }
+
+    // Runs on the scheduler thread, so sync work never overlaps
+    private void flush() {
+        try {
+            if (reconcileRequested.getAndSet(false)) {
+                pending.clear();
+                startupService.synchronizeAudioFolder(audioFolder.toString());
+                return;
+            }
+
+            long now = System.nanoTime();
+            long debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMs);
+            List<Path> ready = new ArrayList<>();
+            for (Map.Entry<Path, PendingEvent> entry : pending.entrySet()) {
+                Path path = entry.getKey();
+                PendingEvent event = entry.getValue();
+                if (now - event.lastEventNanos() < debounceNanos) {
+                    continue;
+                }
+                // Still growing without emitting events (e.g. a slow network copy)
+                long size = sizeOf(path);
+                if (size != event.lastSize()) {
+                    pending.replace(path, event, new PendingEvent(now, size));
+                    continue;
+                }
+                // Conditional, so an event that arrived meanwhile keeps the file pending
+                if (pending.remove(path, event)) {
+                    ready.add(path);
+                }
+            }
+
+            if (!ready.isEmpty()) {
+                startupService.applyChanges(ready);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Folder sync after file events failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.response.AudioJobResponse;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes the state of processing jobs to Server-Sent Events subscribers. A
+ * subscriber holds no thread while it waits: one broadcaster checks every
+ * job with subscribers each interval and sends only what changed, each send
+ * on a short-lived virtual thread. A client too slow to take an update skips
+ * to the latest one instead of queueing them.
+ */
+@Service
+public class AudioJobEventService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AudioJobEventService.class);
+
+    // Proxies drop connections that stay quiet, so idle subscribers get a comment this often
+    private static final long KEEPALIVE_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    @Autowired
+    private AudioFileLocator audioFileLocator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${audio.processing.events.interval-ms:500}")
+    private long intervalMs;
+
+    // EventSource reconnects by itself after this, and gets the current state again
+    @Value("${audio.processing.events.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    private ScheduledExecutorService broadcaster;
+    private ExecutorService senders;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        broadcaster = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("job-events-send-", 0).factory());
+        broadcaster.scheduleWithFixedDelay(this::broadcast, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        Gauge.builder("audio.processing.events.subscribers", subscribers, Set::size)
+                .description("Open progress event streams")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        broadcaster.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * Opens an event stream for the job. It sends the current state at once,
+     * a "progress" event on every change, and ends with a "done" or "failed"
+     * event. Must be called on the request's thread.
+     */
+    public SseEmitter subscribe(AudioProcessingJob job) {
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Subscriber subscriber = new Subscriber(job, emitter, audioFileLocator.currentContextUrl());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        dispatch(subscriber, stateOf(job));
+        return emitter;
+    }
+
+    /**
+     * The job as the polling endpoint and the event stream report it.
+     */
+    public AudioJobResponse describe(AudioProcessingJob job) {
+        return describe(job, audioFileLocator.currentContextUrl());
+    }
+
+    private AudioJobResponse describe(AudioProcessingJob job, String contextUrl) {
+        String url = job.getProcessedFilePath() != null
+                ? audioFileLocator.toStreamUrl(Paths.get(job.getProcessedFilePath()), contextUrl) : null;
+        RenderProgress progress = job.getProgress();
+        // Percent and speed stay as FFmpeg last reported them; an ETA means nothing once the job is over
+        return new AudioJobResponse(job.getId(), job.getStatus().name(), url, job.getError(),
+                progress != null ? progress.getPercent() : null,
+                progress != null && progress.getSpeed() > 0 ? progress.getSpeed() : null,
+                progress != null && !job.isFinished() ? progress.getEtaSeconds() : null);
+    }
+
+    private void broadcast() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            String state = stateOf(subscriber.job);
+            if (!state.equals(subscriber.lastState) || now - subscriber.lastSentNanos > KEEPALIVE_NANOS) {
+                dispatch(subscriber, state);
+            }
+        }
+    }
+
+    // Changes whenever the status does or FFmpeg reports a new block
+    private static String stateOf(AudioProcessingJob job) {
+        RenderProgress progress = job.getProgress();
+        return job.getStatus() + ":" + (progress != null ? progress.getVersion() : -1);
+    }
+
+    private void dispatch(Subscriber subscriber, String state) {
+        // The previous send is still stuck on a slow client; the next interval sends whatever is latest then
+        if (!subscriber.sending.compareAndSet(false, true)) {
+            return;
+        }
+        senders.execute(() -> {
+            try {
+                send(subscriber, state);
+            } finally {
+                subscriber.sending.set(false);
+            }
+        });
+    }
+
+    private void send(Subscriber subscriber, String state) {
+        AudioProcessingJob job = subscriber.job;
+        try {
+            if (state.equals(subscriber.lastState)) {
+                subscriber.emitter.send(SseEmitter.event().comment("keepalive"));
+            } else {
+                String name = switch (job.getStatus()) {
+                    case DONE -> "done";
+                    case FAILED -> "failed";
+                    default -> "progress";
+                };
+                subscriber.emitter.send(SseEmitter.event().name(name)
+                        .data(describe(job, subscriber.contextUrl), MediaType.APPLICATION_JSON));
+                subscriber.lastState = state;
+            }
+            subscriber.lastSentNanos = System.nanoTime();
+            if (job.isFinished() && state.equals(subscriber.lastState)) {
+                subscribers.remove(subscriber);
+                subscriber.emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the container completes the emitter
+            subscribers.remove(subscriber);
+            logger.debug("Dropped event stream of job {}: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    private static final class Subscriber {
+        private final AudioProcessingJob job;
+        private final SseEmitter emitter;
+        private final String contextUrl;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile String lastState;
+        private volatile long lastSentNanos = System.nanoTime();
+
+        private Subscriber(AudioProcessingJob job, SseEmitter emitter, String contextUrl) {
+            this.job = job;
+            this.emitter = emitter;
+            this.contextUrl = contextUrl;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.request.AudioProcessingRequest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class AudioJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AudioJobService.class);
+
+    @Autowired
+    private AudioProcessingService audioProcessingService;
+
+    @Autowired
+    @Qualifier("audioProcessingExecutor")
+    private ThreadPoolTaskExecutor audioProcessingExecutor;
+
+    // How long finished jobs stay available for polling
+    @Value("${audio.processing.job-retention-minutes:30}")
+    private long jobRetentionMinutes;
+
+    private final Map<String, AudioProcessingJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Queues a processing request and returns immediately. Throws
+     * TaskRejectedException when the executor queue is full.
+     */
+    public AudioProcessingJob submit(AudioProcessingRequest request) {
+        pruneFinishedJobs();
+
+        AudioProcessingJob job = new AudioProcessingJob(UUID.randomUUID().toString(), request.getFilePath());
+        jobs.put(job.getId(), job);
+
+        try {
+            audioProcessingExecutor.execute(() -> run(job, request));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    public AudioProcessingJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    private void run(AudioProcessingJob job, AudioProcessingRequest request) {
+        job.markRunning();
+        try {
+            job.markDone(audioProcessingService.processAudio(request, job::attach));
+        } catch (Exception e) {
+            logger.warn("Processing job {} failed for {}: {}", job.getId(), job.getFilePath(), e.getMessage());
+            job.markFailed(e.getMessage());
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(jobRetentionMinutes));
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.litlistener.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import com.example.litlistener.entity.AudioFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads duration, sample rate, channels and bit rate with ffprobe and stores
+ * them on audio_files, so nothing downstream has to open the file again.
+ * Batches are probed in parallel on a fixed pool, which bounds how many
+ * ffprobe processes run at once. Failed probes are counted on the row and
+ * retried with backoff, up to a limit, until the file changes.
+ */
+@Service
+public class AudioMetadataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AudioMetadataService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AudioFileCacheService audioFileCacheService;
+
+    @Autowired
+    private ProcessSupervisor processSupervisor;
+
+    // 0 uses one probe per available core
+    @Value("${audio.probe.concurrency:0}")
+    private int concurrency;
+
+    @Value("${audio.probe.timeout-seconds:30}")
+    private long probeTimeoutSeconds;
+
+    @Value("${audio.probe.max-attempts:3}")
+    private int maxAttempts;
+
+    // Doubles after every failure
+    @Value("${audio.probe.retry-minutes:60}")
+    private long retryMinutes;
+
+    @Value("${audio.sync.batch-size:500}")
+    private int batchSize;
+
+    private ExecutorService probes;
+    private ExecutorService backfill;
+    // Paths queued for the background probe, so repeated syncs do not queue them twice
+    private final Set<String> backfillQueued = ConcurrentHashMap.newKeySet();
+
+    public record AudioMetadata(long durationMs, int sampleRate, int channels, int bitRate) {
+    }
+
+    @PostConstruct
+    void init() {
+        int threads = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        probes = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "audio-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        backfill = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audio-probe-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        backfill.shutdownNow();
+        probes.shutdownNow();
+    }
+
+    /**
+     * Whether a file without metadata should be probed now: never failed, or
+     * failed fewer than max-attempts times and the backoff has passed.
+     */
+    public boolean isProbeDue(Integer failures, Long failedAt) {
+        if (failures == null || failures == 0 || failedAt == null) {
+            return true;
+        }
+        if (failures >= maxAttempts) {
+            return false;
+        }
+        long backoffMs = Duration.ofMinutes(retryMinutes).toMillis() << Math.min(failures - 1, 16);
+        return System.currentTimeMillis() >= failedAt + backoffMs;
+    }
+
+    /**
+     * Probes files that are already registered on a background thread, one
+     * batch at a time, for rows that predate probing or whose probe failed.
+     * Takes names by path so cached rows can be dropped as batches are stored.
+     */
+    public void probeInBackground(Map<String, String> namesByPath) {
+        List<String> paths = namesByPath.keySet().stream().filter(backfillQueued::add).toList();
+        if (paths.isEmpty()) {
+            return;
+        }
+        logger.info("Probing {} existing file(s) in the background", paths.size());
+        for (int i = 0; i < paths.size(); i += batchSize) {
+            List<String> batch = paths.subList(i, Math.min(i + batchSize, paths.size()));
+            backfill.execute(() -> {
+                try {
+                    List<String> stored = probeAndStore(batch);
+                    audioFileCacheService.invalidateNames(stored.stream().map(namesByPath::get).toList());
+                } catch (RuntimeException e) {
+                    logger.warn("Background probe failed: {}", e.getMessage());
+                } finally {
+                    batch.forEach(backfillQueued::remove);
+                }
+            });
+        }
+    }
+
+    /**
+     * Probes the files in parallel and writes the results in JDBC batches.
+     * Files that cannot be probed keep null metadata, are logged and have
+     * the failure recorded. Returns the paths that were stored.
+     */
+    public List<String> probeAndStore(Collection<String> paths) {
+        if (paths.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Future<AudioMetadata>> pending = new HashMap<>();
+        for (String path : paths) {
+            Callable<AudioMetadata> task = () -> probe(Paths.get(path));
+            pending.put(path, probes.submit(task));
+        }
+
+        Map<String, AudioMetadata> probed = new HashMap<>();
+        List<String> failed = new ArrayList<>();
+        for (Map.Entry<String, Future<AudioMetadata>> entry : pending.entrySet()) {
+            try {
+                probed.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                logger.warn("Could not probe {}: {}", entry.getKey(), e.getCause().getMessage());
+                failed.add(entry.getKey());
+            } catch (InterruptedException e) {
+                // Shutting down; store what is done and let the next sync probe the rest
+                Thread.currentThread().interrupt();
+                pending.values().forEach(future -> future.cancel(true));
+                break;
+            }
+        }
+
+        jdbcTemplate.batchUpdate(
+                "UPDATE audio_files SET duration_ms = ?, sample_rate = ?, channels = ?, bit_rate = ?, "
+                        + "probe_failures = NULL, probe_failed_at = NULL WHERE path = ?",
+                new ArrayList<>(probed.entrySet()), batchSize, (ps, entry) -> {
+                    AudioMetadata metadata = entry.getValue();
+                    ps.setLong(1, metadata.durationMs());
+                    ps.setInt(2, metadata.sampleRate());
+                    ps.setInt(3, metadata.channels());
+                    ps.setInt(4, metadata.bitRate());
+                    ps.setString(5, entry.getKey());
+                });
+        long failedAt = System.currentTimeMillis();
+        jdbcTemplate.batchUpdate(
+                "UPDATE audio_files SET probe_failures = COALESCE(probe_failures, 0) + 1, probe_failed_at = ? "
+                        + "WHERE path = ?",
+                failed, batchSize, (ps, path) -> {
+                    ps.setLong(1, failedAt);
+                    ps.setString(2, path);
+                });
+        return new ArrayList<>(probed.keySet());
+    }
+
+    /**
+     * The metadata stored at ingest for a registered file. Only files the
+     * database does not know about, such as renditions, are probed.
+     */
+    public AudioMetadata metadataOf(Path source) throws IOException {
+        Path normalized = source.toAbsolutePath().normalize();
+        AudioFile audioFile = audioFileCacheService.findByName(normalized.getFileName().toString());
+        if (audioFile != null && audioFile.getSampleRate() != null && audioFile.getChannels() != null
+                && normalized.equals(Paths.get(audioFile.getPath()).toAbsolutePath().normalize())) {
+            return new AudioMetadata(audioFile.getDurationMs() != null ? audioFile.getDurationMs() : 0,
+                    audioFile.getSampleRate(), audioFile.getChannels(),
+                    audioFile.getBitRate() != null ? audioFile.getBitRate() : 0);
+        }
+        try {
+            return probe(normalized);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while probing " + source);
+        }
+    }
+
+    public AudioMetadata probe(Path source) throws IOException, InterruptedException {
+        List<String> command = Arrays.asList("ffprobe", "-v", "error", "-select_streams", "a:0",
+                "-show_entries", "stream=sample_rate,channels,bit_rate:format=duration,bit_rate",
+                "-of", "default=noprint_wrappers=1", source.toString());
+        String output;
+        try (SupervisedProcess process = processSupervisor.start(new ProcessBuilder(command),
+                Duration.ofSeconds(probeTimeoutSeconds));
+                InputStream in = process.getInputStream()) {
+            output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw process.failure("ffprobe failed with exit code " + exitCode);
+            }
+        }
+
+        Map<String, String> values = new HashMap<>();
+        for (String line : output.split("\\R")) {
+            int equals = line.indexOf('=');
+            // The stream's bit_rate comes first and wins; the container's is the fallback for VBR files
+            if (equals > 0 && !"N/A".equals(line.substring(equals + 1).trim())) {
+                values.putIfAbsent(line.substring(0, equals).trim(), line.substring(equals + 1).trim());
+            }
+        }
+        if (!values.containsKey("sample_rate")) {
+            throw new IOException("No audio stream found in " + source);
+        }
+        return new AudioMetadata(
+                Math.round(Double.parseDouble(values.getOrDefault("duration", "0")) * 1000),
+                Integer.parseInt(values.get("sample_rate")),
+                Integer.parseInt(values.getOrDefault("channels", "0")),
+                (int) Math.min(Integer.MAX_VALUE, Long.parseLong(values.getOrDefault("bit_rate", "0"))));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.litlistener.service;
+
+import java.time.Instant;
+
+public class AudioProcessingJob {
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private final String id;
+    private final String filePath;
+    private final Instant createdAt;
+    private volatile Status status;
+    private volatile String processedFilePath;
+    private volatile String error;
+    private volatile Instant finishedAt;
+    // Set when the render this job waits for starts; a cache hit never has one
+    private volatile RenderProgress progress;
+
+    public AudioProcessingJob(String id, String filePath) {
+        this.id = id;
+        this.filePath = filePath;
+        this.createdAt = Instant.now();
+        this.status = Status.QUEUED;
+    }
+
+    void markRunning() {
+        this.status = Status.RUNNING;
+    }
+
+    void attach(RenderProgress progress) {
+        this.progress = progress;
+    }
+
+    void markDone(String processedFilePath) {
+        this.processedFilePath = processedFilePath;
+        this.finishedAt = Instant.now();
+        this.status = Status.DONE;
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = Status.FAILED;
+    }
+
+    // Getters
+    public String getId() {
+        return id;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getProcessedFilePath() {
+        return processedFilePath;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public RenderProgress getProgress() {
+        return progress;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+}
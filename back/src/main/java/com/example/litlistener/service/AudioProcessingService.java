@@ -1,123 +1,260 @@
 package com.example.litlistener.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import com.example.litlistener.request.AudioProcessingRequest;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 @Service
 public class AudioProcessingService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AudioProcessingService.class);
+
+    // Value of AudioProcessingRequest.engine that selects the in-JVM DSP path
+    public static final String ENGINE_JVM = "jvm";
+
+    // Rendition cache key prefix of renders split into parallel segments
+    private static final String SEGMENTED = "segmented";
+
+    @Autowired
+    private RenditionCacheService renditionCacheService;
+
+    @Autowired
+    private PcmProcessingService pcmProcessingService;
+
+    @Autowired
+    private WaveformService waveformService;
+
+    @Autowired
+    private AudioMetadataService audioMetadataService;
+
+    @Autowired
+    private ProcessingMetrics processingMetrics;
+
+    @Autowired
+    private ProcessSupervisor processSupervisor;
+
+    @Autowired
+    private SegmentedRenderService segmentedRenderService;
+
+    // Renders in progress by cache key; identical requests wait for the running one
+    private final Map<String, Render> inFlight = new ConcurrentHashMap<>();
+
+    private record Render(CompletableFuture<String> result, RenderProgress progress) {
+    }
+
     public String processAudio(AudioProcessingRequest request) throws Exception {
-        System.out.println("Processing audio: " + request.getFilePath());
+        return processAudio(request, null);
+    }
+
+    /**
+     * Renders the request and returns the output path. Unless the result is
+     * already cached, onRender is handed the progress of the render that
+     * produces it, which is another request's when identical renders coalesce.
+     */
+    public String processAudio(AudioProcessingRequest request, Consumer<RenderProgress> onRender) throws Exception {
+        logger.debug("Processing {} with engine {}", request.getFilePath(), request.getEngine());
         File file = new File(request.getFilePath());
         if (!file.exists()) {
             throw new IOException("File not found: " + request.getFilePath());
         }
 
-        // Check if the file is already a "_denoised.mp3" version
-        String currentFilePath = file.getAbsolutePath();
-        if (!currentFilePath.endsWith("_denoised.mp3")) {
-            currentFilePath = createDenoisedCopy(file.getAbsolutePath());
+        // Compose every requested effect into a single filter chain so the file is
+        // decoded and encoded once, instead of once per effect
+        Path source = file.toPath().toAbsolutePath().normalize();
+        List<String> filters = buildFilterChain(request, source);
+        if (filters.isEmpty()) {
+            return file.getAbsolutePath();
         }
+        String filterChain = String.join(",", filters);
+        boolean useJvmEngine = ENGINE_JVM.equalsIgnoreCase(request.getEngine());
+        boolean segmented = !useJvmEngine && segmentedRenderService.appliesTo(source);
 
-        // Apply processing steps
-        if (isValidPitchFactor(request.getPitchFactor())) {
-            System.out.println("Adjusting pitch for: " + currentFilePath);
-            currentFilePath = processWithFFmpeg(currentFilePath,
-                    Arrays.asList("-filter:a", "asetrate=" + (44100 * request.getPitchFactor())));
+        // Identical source content and effective filters always give the same output
+        // The engines and the segmented mode produce slightly different output, so they are cached separately
+        String key = renditionCacheService.keyFor(source, useJvmEngine ? ENGINE_JVM + ":" + filterChain
+                : segmented ? SEGMENTED + ":" + filterChain : filterChain);
+        Render created = new Render(new CompletableFuture<>(),
+                new RenderProgress(expectedDurationMs(request, source)));
+        Render existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            processingMetrics.coalesced();
+            logger.debug("Joining the running render of {} for {}", key, source);
+            if (onRender != null) {
+                onRender.accept(existing.progress());
+            }
+            return await(existing.result());
         }
+        try {
+            String result = renderOnce(request, source, filters, useJvmEngine, segmented, key, created.progress(),
+                    onRender);
+            created.result().complete(result);
+            return result;
+        } catch (Exception e) {
+            created.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
 
-        if (isValidAmplificationFactor(request.getAmplificationFactor())) {
-            System.out.println("Amplifying audio for: " + currentFilePath);
-            currentFilePath = processWithFFmpeg(currentFilePath,
-                    Arrays.asList("-filter:a", "volume=" + request.getAmplificationFactor()));
+    private String renderOnce(AudioProcessingRequest request, Path source, List<String> filters,
+            boolean useJvmEngine, boolean segmented, String key, RenderProgress progress,
+            Consumer<RenderProgress> onRender) throws Exception {
+        Path cached = renditionCacheService.lookup(key);
+        if (cached != null) {
+            logger.debug("Rendition cache hit for {}: {}", source, cached);
+            return cached.toString();
         }
-        /*
-         * if (isValidCompression(request.getCompressionThreshold(),
-         * request.getCompressionRatio())) {
-         * System.out.println("Compressing audio for: " + currentFilePath);
-         * currentFilePath = processWithFFmpeg(currentFilePath,
-         * Arrays.asList("-filter:a", "acompressor=threshold=" +
-         * request.getCompressionThreshold() +
-         * ":ratio=" + request.getCompressionRatio()));
-         * }
-         */
-        if (isValidFiltering(request.getFilterFrequency(), request.getFilterBandwidth())) {
-            System.out.println("Filtering audio for: " + currentFilePath);
-            currentFilePath = processWithFFmpeg(currentFilePath,
-                    Arrays.asList("-filter:a", "bandpass=f=" + request.getFilterFrequency() +
-                            ":width_type=h:w=" + request.getFilterBandwidth()));
+        if (onRender != null) {
+            onRender.accept(progress);
+        }
+
+        Path target = renditionCacheService.pathFor(source, key);
+        Path temp = renditionCacheService.tempPathFor(target);
+
+        List<String> effects = ProcessingMetrics.effectsOf(filters);
+        String engine = useJvmEngine ? ProcessingMetrics.ENGINE_JVM : ProcessingMetrics.ENGINE_FFMPEG;
+        long start = System.nanoTime();
+        processingMetrics.started(effects);
+        try {
+            if (useJvmEngine) {
+                pcmProcessingService.render(source, temp, request);
+            } else if (segmented) {
+                segmentedRenderService.render(source, temp, filters, request, progress);
+            } else {
+                processWithFFmpeg(source.toString(), temp.toString(),
+                        Arrays.asList("-filter:a", String.join(",", filters)), progress);
+            }
+            long rendered = System.nanoTime();
+            renditionCacheService.commit(key, temp, target);
+            processingMetrics.recordStage(engine, ProcessingMetrics.RENAME, rendered);
+            processingMetrics.processed(effects, Files.size(source));
+        } finally {
+            processingMetrics.finished(effects);
         }
+        waveformService.generateAsync(List.of(target));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        logger.info("Applied {} effect(s) in one {} pass in {} ms: {}",
+                filters.size(), useJvmEngine ? "JVM" : segmented ? "segmented FFmpeg" : "FFmpeg", elapsedMs, target);
 
         // Return the final processed file path
-        return currentFilePath;
+        return target.toString();
     }
 
-    private String createDenoisedCopy(String originalFilePath) throws IOException {
-        String denoisedFilePath = originalFilePath.replace(".mp3", "_denoised.mp3");
-        File denoisedFile = new File(denoisedFilePath);
-
-        if (!denoisedFile.exists()) {
-            Files.copy(new File(originalFilePath).toPath(), denoisedFile.toPath());
-            System.out.println("Created denoised copy: " + denoisedFilePath);
+    // Length of the output; asetrate changes the duration by the pitch factor. 0 when it cannot be probed
+    private long expectedDurationMs(AudioProcessingRequest request, Path source) {
+        try {
+            long durationMs = audioMetadataService.metadataOf(source).durationMs();
+            return isValidPitchFactor(request.getPitchFactor())
+                    ? Math.round(durationMs / request.getPitchFactor()) : durationMs;
+        } catch (IOException e) {
+            logger.debug("No duration for the progress of {}: {}", source, e.getMessage());
+            return 0;
         }
+    }
 
-        return denoisedFilePath;
+    // The running render's result, or its failure rethrown as if this caller had rendered
+    private static String await(CompletableFuture<String> running) throws Exception {
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
     }
 
-    private String processWithFFmpeg(String inputFilePath, List<String> filterArgs) throws Exception {
-        // Generate a temporary file for processing
-        String tempFilePath = inputFilePath.replace("_denoised.mp3", "_temp.mp3");
+    /**
+     * Turns the request into an ordered list of FFmpeg audio filters:
+     * pitch, volume, compression, then band-pass.
+     */
+    public List<String> buildFilterChain(AudioProcessingRequest request, Path source) throws IOException {
+        List<String> filters = new ArrayList<>();
 
-        // Build the FFmpeg command
-        List<String> command = new ArrayList<>(Arrays.asList("ffmpeg", "-y", "-i", inputFilePath));
-        command.addAll(filterArgs);
-        command.add(tempFilePath);
+        if (isValidPitchFactor(request.getPitchFactor())) {
+            // Relative to the file's own rate, so the factor means the same for 44.1 and 48 kHz files
+            filters.add("asetrate=" + (audioMetadataService.metadataOf(source).sampleRate() * request.getPitchFactor()));
+        }
 
-        System.out.println("Executing command: " + String.join(" ", command));
+        if (isValidAmplificationFactor(request.getAmplificationFactor())) {
+            filters.add("volume=" + request.getAmplificationFactor());
+        }
 
-        ProcessBuilder pb = new ProcessBuilder(command);
-        pb.redirectErrorStream(true);
-        Process process = pb.start();
-        int exitCode = process.waitFor();
+        if (isValidCompression(request.getCompressionThreshold(), request.getCompressionRatio())) {
+            // The UI sends the threshold in dB, acompressor expects a linear level
+            double threshold = Math.pow(10, request.getCompressionThreshold() / 20);
+            filters.add("acompressor=threshold=" + threshold + ":ratio=" + request.getCompressionRatio());
+        }
 
-        if (exitCode != 0) {
-            throw new RuntimeException("FFmpeg process failed with exit code: " + exitCode);
+        if (isValidFiltering(request.getFilterFrequency(), request.getFilterBandwidth())) {
+            filters.add("bandpass=f=" + request.getFilterFrequency() +
+                    ":width_type=h:w=" + request.getFilterBandwidth());
         }
 
-        // Replace the original input file with the temp file
-        File tempFile = new File(tempFilePath);
-        File originalFile = new File(inputFilePath);
+        return filters;
+    }
 
-        if (!tempFile.renameTo(originalFile)) {
-            throw new RuntimeException("Failed to replace original file with temp file: " + tempFilePath);
+    private void processWithFFmpeg(String inputFilePath, String outputFilePath, List<String> filterArgs,
+            RenderProgress progress) throws Exception {
+        // Build the FFmpeg command; the output format follows the file extension,
+        // so force mp3 since the scratch file ends in .tmp
+        List<String> command = new ArrayList<>(Arrays.asList("ffmpeg", "-y"));
+        command.addAll(RenderProgress.FFMPEG_ARGS);
+        command.addAll(Arrays.asList("-i", inputFilePath));
+        command.addAll(filterArgs);
+        command.addAll(Arrays.asList("-f", "mp3", outputFilePath));
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Executing command: {}", String.join(" ", command));
         }
 
-        return inputFilePath; // Return the updated file path
+        // FFmpeg logs to stderr, which the supervisor drains; stdout carries the progress blocks
+        ProcessBuilder pb = new ProcessBuilder(command);
+        try (SupervisedProcess process = processSupervisor.start(pb)) {
+            processSupervisor.followProgress(process, progress);
+            long spawned = processingMetrics.recordStage(ProcessingMetrics.ENGINE_FFMPEG, ProcessingMetrics.SPAWN,
+                    process.getSpawnStartNanos());
+            int exitCode = process.waitFor();
+            processingMetrics.recordStage(ProcessingMetrics.ENGINE_FFMPEG, ProcessingMetrics.RUN, spawned);
+            if (exitCode != 0) {
+                throw process.failure("FFmpeg process failed with exit code: " + exitCode);
+            }
+        } catch (IOException | InterruptedException e) {
+            // Partial output of a failed, timed out or interrupted run
+            Files.deleteIfExists(Paths.get(outputFilePath));
+            throw e;
+        }
     }
 
-    private boolean isValidPitchFactor(double pitchFactor) {
+    static boolean isValidPitchFactor(double pitchFactor) {
         return pitchFactor > 0.5 && pitchFactor < 2.0;
     }
 
-    private boolean isValidAmplificationFactor(double amplificationFactor) {
+    static boolean isValidAmplificationFactor(double amplificationFactor) {
         return amplificationFactor > 0.1 && amplificationFactor < 5.0;
     }
 
-    /*
-     * to be implemented later when I google how this actually works
-     * private boolean isValidCompression(double threshold, double ratio) {
-     * return threshold >= -60 && threshold <= 0 && ratio >= 1 && ratio <= 20;
-     * }
-     */
+    // A ratio of 1 means no compression, so only ratios above it add a filter
+    static boolean isValidCompression(double threshold, double ratio) {
+        return threshold >= -60 && threshold <= 0 && ratio > 1 && ratio <= 20;
+    }
 
-    private boolean isValidFiltering(double frequency, double bandwidth) {
+    static boolean isValidFiltering(double frequency, double bandwidth) {
         return frequency >= 20 && frequency <= 20000 && bandwidth >= 10 && bandwidth <= 1000;
     }
 }
@@ -0,0 +1,194 @@
+package com.example.litlistener.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One preset applied to a list of files. Items run independently, so some
+ * can fail while the rest finish; the counters give the aggregate progress.
+ */
+public class BulkProcessingJob {
+
+    public enum Status {
+        RUNNING, DONE, CANCELLED
+    }
+
+    public enum ItemStatus {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED
+    }
+
+    public static class Item {
+        private final String filePath;
+        private volatile ItemStatus status = ItemStatus.QUEUED;
+        private volatile String processedFilePath;
+        private volatile String error;
+        private volatile long durationMs = -1;
+
+        Item(String filePath) {
+            this.filePath = filePath;
+        }
+
+        public String getFilePath() {
+            return filePath;
+        }
+
+        public ItemStatus getStatus() {
+            return status;
+        }
+
+        public String getProcessedFilePath() {
+            return processedFilePath;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        // -1 until the item has finished
+        public long getDurationMs() {
+            return durationMs;
+        }
+    }
+
+    private final String id;
+    private final String preset;
+    private final List<Item> items;
+    private final Instant createdAt;
+    private final long startNanos;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger done = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger cancelledItems = new AtomicInteger();
+    private final AtomicLong sourceBytes = new AtomicLong();
+    private volatile boolean cancelRequested;
+    private volatile long finishedNanos;
+    private volatile Instant finishedAt;
+
+    public BulkProcessingJob(String id, String preset, List<String> filePaths) {
+        this.id = id;
+        this.preset = preset;
+        this.items = filePaths.stream().map(Item::new).toList();
+        this.createdAt = Instant.now();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Marks the item running, or cancelled if the job was cancelled while it
+     * waited. Returns whether it should run.
+     */
+    boolean start(Item item) {
+        if (cancelRequested) {
+            item.status = ItemStatus.CANCELLED;
+            cancelledItems.incrementAndGet();
+            return false;
+        }
+        item.status = ItemStatus.RUNNING;
+        running.incrementAndGet();
+        return true;
+    }
+
+    // Each of these returns true for the item that completes the job, and only for it
+
+    boolean skipped() {
+        return finishIfComplete();
+    }
+
+    boolean succeeded(Item item, String processedFilePath, long bytes, long durationMs) {
+        item.processedFilePath = processedFilePath;
+        item.durationMs = durationMs;
+        item.status = ItemStatus.DONE;
+        sourceBytes.addAndGet(bytes);
+        running.decrementAndGet();
+        done.incrementAndGet();
+        return finishIfComplete();
+    }
+
+    boolean failed(Item item, String error, long durationMs) {
+        item.error = error;
+        item.durationMs = durationMs;
+        item.status = ItemStatus.FAILED;
+        running.decrementAndGet();
+        failed.incrementAndGet();
+        return finishIfComplete();
+    }
+
+    void cancel() {
+        cancelRequested = true;
+    }
+
+    private synchronized boolean finishIfComplete() {
+        if (finishedAt != null || done.get() + failed.get() + cancelledItems.get() < items.size()) {
+            return false;
+        }
+        finishedNanos = System.nanoTime();
+        finishedAt = Instant.now();
+        return true;
+    }
+
+    // Getters
+    public String getId() {
+        return id;
+    }
+
+    public String getPreset() {
+        return preset;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Status getStatus() {
+        if (finishedAt == null) {
+            return Status.RUNNING;
+        }
+        return cancelledItems.get() > 0 ? Status.CANCELLED : Status.DONE;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    public int getTotal() {
+        return items.size();
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    public int getDone() {
+        return done.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getCancelled() {
+        return cancelledItems.get();
+    }
+
+    public int getQueued() {
+        // The counters move one at a time, so a poll can briefly see an item counted twice
+        return Math.max(0, items.size() - running.get() - done.get() - failed.get() - cancelledItems.get());
+    }
+
+    public long getSourceBytes() {
+        return sourceBytes.get();
+    }
+
+    public long getElapsedMs() {
+        return ((finishedAt != null ? finishedNanos : System.nanoTime()) - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.entity.ProcessingPreset;
+import com.example.litlistener.repository.AudioFileRepository;
+import com.example.litlistener.request.BulkProcessingRequest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies a preset to many files: an explicit selection of ids, or every
+ * file matching a tag and/or field. A job hands the bounded worker pool one
+ * runner per worker, each taking the job's next file until none are left,
+ * so the pool's queue holds a few runners per job rather than one task per
+ * file. Only a few jobs may run at once. A file that fails is recorded and
+ * the rest carry on.
+ */
+@Service
+public class BulkProcessingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkProcessingService.class);
+
+    @Autowired
+    private AudioProcessingService audioProcessingService;
+
+    @Autowired
+    private ProcessingPresetService processingPresetService;
+
+    @Autowired
+    private AudioFileRepository audioFileRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 0 uses half the available cores, like the single-file processing executor
+    @Value("${audio.bulk.concurrency:0}")
+    private int concurrency;
+
+    @Value("${audio.bulk.max-files:5000}")
+    private int maxFiles;
+
+    // Jobs with files still queued or rendering; more are rejected until one finishes
+    @Value("${audio.bulk.max-active-jobs:2}")
+    private int maxActiveJobs;
+
+    @Value("${audio.processing.job-retention-minutes:30}")
+    private long jobRetentionMinutes;
+
+    private int threads;
+    private ExecutorService workers;
+    private ScheduledExecutorService pruner;
+    private final Map<String, BulkProcessingJob> jobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        threads = concurrency > 0 ? concurrency : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "audio-bulk");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Finished jobs keep every file's outcome, so they are dropped on a timer rather than on the next submit
+        pruner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audio-bulk-prune");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pruner.scheduleWithFixedDelay(this::pruneFinishedJobs, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        pruner.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Resolves the files and starts the job's runners. Throws
+     * IllegalArgumentException for an unknown preset, a request that selects
+     * nothing, or more files than audio.bulk.max-files, and
+     * TaskRejectedException while audio.bulk.max-active-jobs jobs are running.
+     */
+    public BulkProcessingJob submit(BulkProcessingRequest request) {
+        ProcessingPreset preset = request.getPreset() != null
+                ? processingPresetService.getPreset(request.getPreset()) : null;
+        if (preset == null) {
+            throw new IllegalArgumentException("Unknown preset: " + request.getPreset());
+        }
+
+        List<String> paths;
+        if (request.getFileIds() != null && !request.getFileIds().isEmpty()) {
+            paths = audioFileRepository.findPathsByIdIn(request.getFileIds());
+        } else if (request.getTag() != null || request.getField() != null) {
+            paths = audioFileRepository.findPathsByTagAndField(request.getTag(), request.getField());
+        } else {
+            throw new IllegalArgumentException("Select files by id, tag or field.");
+        }
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("No files match the selection.");
+        }
+        if (paths.size() > maxFiles) {
+            throw new IllegalArgumentException("Selection has " + paths.size() + " files, more than the limit of "
+                    + maxFiles + ".");
+        }
+
+        BulkProcessingJob job = new BulkProcessingJob(UUID.randomUUID().toString(), preset.getName(), paths);
+        synchronized (jobs) {
+            if (jobs.values().stream().filter(existing -> !existing.isFinished()).count() >= maxActiveJobs) {
+                throw new TaskRejectedException("All " + maxActiveJobs + " bulk job slots are in use.");
+            }
+            jobs.put(job.getId(), job);
+        }
+        List<BulkProcessingJob.Item> items = job.getItems();
+        AtomicInteger next = new AtomicInteger();
+        Runnable runner = () -> {
+            int index;
+            while ((index = next.getAndIncrement()) < items.size()) {
+                run(job, preset, items.get(index));
+            }
+        };
+        for (int i = 0; i < Math.min(threads, items.size()); i++) {
+            workers.execute(runner);
+        }
+        logger.info("Applying preset {} to {} file(s) as bulk job {}", preset.getName(), paths.size(), job.getId());
+        return job;
+    }
+
+    public BulkProcessingJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Skips the files that have not started yet; running ones finish.
+     * Returns false if there is no such job.
+     */
+    public boolean cancel(String id) {
+        BulkProcessingJob job = jobs.get(id);
+        if (job == null) {
+            return false;
+        }
+        job.cancel();
+        return true;
+    }
+
+    private void run(BulkProcessingJob job, ProcessingPreset preset, BulkProcessingJob.Item item) {
+        boolean finished;
+        if (!job.start(item)) {
+            finished = job.skipped();
+        } else {
+            long start = System.nanoTime();
+            try {
+                long bytes = Files.size(Paths.get(item.getFilePath()));
+                String output = audioProcessingService.processAudio(
+                        ProcessingPresetService.toRequest(preset, item.getFilePath()));
+                meterRegistry.counter("audio.bulk.files", "outcome", "done").increment();
+                finished = job.succeeded(item, output, bytes, (System.nanoTime() - start) / 1_000_000);
+            } catch (Exception e) {
+                String error = e instanceof NoSuchFileException missing ? "File not found: " + missing.getFile()
+                        : e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                logger.warn("Bulk job {}: processing {} failed: {}", job.getId(), item.getFilePath(), error);
+                meterRegistry.counter("audio.bulk.files", "outcome", "failed").increment();
+                finished = job.failed(item, error, (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+        if (finished) {
+            logger.info("Bulk job {} finished in {} ms: {} done, {} failed, {} cancelled", job.getId(),
+                    job.getElapsedMs(), job.getDone(), job.getFailed(), job.getCancelled());
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(jobRetentionMinutes));
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.entity.FacetCount;
+import com.example.litlistener.repository.AudioFileRepository;
+import com.example.litlistener.repository.FacetCountRepository;
+import com.example.litlistener.repository.FacetCountView;
+import com.example.litlistener.response.FacetCountResponse;
+import com.example.litlistener.response.FacetsResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Keeps per-tag and per-field file counts in audio_facet_counts. The record*
+ * methods adjust the counts and must run inside the transaction that changes
+ * audio_files, so the two tables always commit together.
+ */
+@Service
+public class FacetService {
+
+    public static final String TAG = "tag";
+    public static final String FIELD = "field";
+
+    private static final Logger logger = LoggerFactory.getLogger(FacetService.class);
+
+    @Autowired
+    private AudioFileRepository audioFileRepository;
+
+    @Autowired
+    private FacetCountRepository facetCountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public FacetsResponse getFacets() {
+        List<FacetCountResponse> tags = new ArrayList<>();
+        List<FacetCountResponse> fields = new ArrayList<>();
+        for (FacetCount count : facetCountRepository.findByFileCountGreaterThanOrderByFileCountDescFacetValueAsc(0)) {
+            (TAG.equals(count.getDimension()) ? tags : fields)
+                    .add(new FacetCountResponse(count.getFacetValue(), count.getFileCount()));
+        }
+        return new FacetsResponse(tags, fields);
+    }
+
+    /**
+     * Moves one file from its old tag and field to its new ones.
+     */
+    public void recordChange(String oldTag, String oldField, String newTag, String newField) {
+        Map<Facet, Long> deltas = new TreeMap<>();
+        if (!Objects.equals(oldTag, newTag)) {
+            deltas.merge(new Facet(TAG, oldTag), -1L, Long::sum);
+            deltas.merge(new Facet(TAG, newTag), 1L, Long::sum);
+        }
+        if (!Objects.equals(oldField, newField)) {
+            deltas.merge(new Facet(FIELD, oldField), -1L, Long::sum);
+            deltas.merge(new Facet(FIELD, newField), 1L, Long::sum);
+        }
+        deltas.forEach(this::add);
+    }
+
+    /**
+     * Subtracts files that are about to be deleted; call before the delete.
+     */
+    public void recordRemoval(Collection<Long> ids) {
+        Map<Facet, Long> deltas = new TreeMap<>();
+        for (FacetCountView group : audioFileRepository.countTagsByIdIn(ids)) {
+            deltas.merge(new Facet(TAG, group.getFacetValue()), -group.getFileCount(), Long::sum);
+        }
+        for (FacetCountView group : audioFileRepository.countFieldsByIdIn(ids)) {
+            deltas.merge(new Facet(FIELD, group.getFacetValue()), -group.getFileCount(), Long::sum);
+        }
+        deltas.forEach(this::add);
+    }
+
+    // Sorted so every transaction locks the count rows in the same order; two saves that swap
+    // tags in opposite directions would otherwise deadlock
+    private record Facet(String dimension, String value) implements Comparable<Facet> {
+        @Override
+        public int compareTo(Facet other) {
+            int byDimension = dimension.compareTo(other.dimension);
+            if (byDimension != 0) {
+                return byDimension;
+            }
+            return Comparator.nullsFirst(Comparator.<String>naturalOrder()).compare(value, other.value);
+        }
+    }
+
+    private void add(Facet facet, long delta) {
+        // Untagged files are not a facet value
+        if (facet.value() == null || facet.value().isEmpty() || delta == 0) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO audio_facet_counts (dimension, facet_value, file_count) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE file_count = file_count + ?", facet.dimension(), facet.value(), delta, delta);
+    }
+
+    /**
+     * Recounts from audio_files once at startup. This fills the table the first
+     * time and repairs drift from rows edited outside the application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM audio_facet_counts");
+            for (String dimension : List.of(TAG, FIELD)) {
+                // Column names cannot be bound, but both come from the constants above
+                jdbcTemplate.update("INSERT INTO audio_facet_counts (dimension, facet_value, file_count) "
+                        + "SELECT ?, " + dimension + ", COUNT(*) FROM audio_files "
+                        + "WHERE " + dimension + " IS NOT NULL AND " + dimension + " <> '' GROUP BY " + dimension,
+                        dimension);
+            }
+        });
+        logger.info("Rebuilt facet counts in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.dsp.DspKernels;
+import com.example.litlistener.dsp.PcmBuffer;
+import com.example.litlistener.request.AudioProcessingRequest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-JVM processing engine: decodes a source once to float PCM with FFmpeg,
+ * keeps the decoded buffer in memory while the file is being worked on, applies
+ * the effects in Java and only uses FFmpeg again for the final encode.
+ */
+@Service
+public class PcmProcessingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PcmProcessingService.class);
+
+    // Largest float[] the JVM will allocate
+    private static final int MAX_SAMPLES = Integer.MAX_VALUE - 8;
+
+    @Autowired
+    private AudioMetadataService audioMetadataService;
+
+    @Autowired
+    private ProcessingMetrics processingMetrics;
+
+    @Autowired
+    private ProcessSupervisor processSupervisor;
+
+    @Value("${audio.dsp.pcm-cache-mb:512}")
+    private long pcmCacheMb;
+
+    // Access-ordered, so iteration starts at the least recently used buffer
+    private final LinkedHashMap<String, PcmBuffer> decoded = new LinkedHashMap<>(16, 0.75f, true);
+    private long decodedBytes;
+
+    /**
+     * Renders the effects of the request into an mp3 at the output path.
+     */
+    public void render(Path source, Path output, AudioProcessingRequest request) throws Exception {
+        PcmBuffer pcm = decode(source);
+        long start = System.nanoTime();
+        int length = pcm.length();
+        int channels = pcm.channels();
+        int sampleRate = pcm.sampleRate();
+        boolean pitch = AudioProcessingService.isValidPitchFactor(request.getPitchFactor());
+        boolean gain = AudioProcessingService.isValidAmplificationFactor(request.getAmplificationFactor());
+
+        // The decoded buffer stays cached for the next render, so the first effect writes
+        // into the one output buffer of this render and the rest work on that in place
+        float[] samples;
+        if (pitch) {
+            samples = new float[DspKernels.outputLength(length, channels, request.getPitchFactor())];
+            length = DspKernels.resample(pcm.samples(), length, channels, request.getPitchFactor(), samples);
+        } else {
+            samples = new float[length];
+            if (!gain) {
+                System.arraycopy(pcm.samples(), 0, samples, 0, length);
+            }
+        }
+
+        if (gain) {
+            DspKernels.gain(pitch ? samples : pcm.samples(), samples, length,
+                    (float) request.getAmplificationFactor());
+        }
+
+        if (AudioProcessingService.isValidCompression(request.getCompressionThreshold(),
+                request.getCompressionRatio())) {
+            DspKernels.compress(samples, length, channels, sampleRate,
+                    request.getCompressionThreshold(), request.getCompressionRatio());
+        }
+
+        if (AudioProcessingService.isValidFiltering(request.getFilterFrequency(), request.getFilterBandwidth())) {
+            DspKernels.bandpass(samples, length, channels, sampleRate,
+                    request.getFilterFrequency(), request.getFilterBandwidth());
+        }
+
+        processingMetrics.recordStage(ProcessingMetrics.ENGINE_JVM, ProcessingMetrics.DSP, start);
+        encode(new PcmBuffer(samples, length, sampleRate, channels), output);
+    }
+
+    /**
+     * Returns the decoded PCM for the source, reusing the in-memory copy while
+     * the file is unchanged.
+     */
+    public PcmBuffer decode(Path source) throws Exception {
+        String key = source.toAbsolutePath() + "@" + Files.getLastModifiedTime(source).toMillis();
+        synchronized (this) {
+            PcmBuffer cached = decoded.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        long start = System.nanoTime();
+        AudioMetadataService.AudioMetadata metadata = audioMetadataService.metadataOf(source);
+        int sampleRate = metadata.sampleRate();
+        // ffprobe may not report a channel count; decode those as stereo
+        int channels = metadata.channels() > 0 ? metadata.channels() : 2;
+
+        // The rate and layout are forced, so the buffer always matches what the kernels are told
+        List<String> command = Arrays.asList("ffmpeg", "-v", "error", "-i", source.toString(),
+                "-f", "f32le", "-acodec", "pcm_f32le", "-ar", String.valueOf(sampleRate),
+                "-ac", String.valueOf(channels), "-");
+        PcmBuffer pcm;
+        try (SupervisedProcess process = processSupervisor.start(new ProcessBuilder(command))) {
+            long spawned = processingMetrics.recordStage(ProcessingMetrics.ENGINE_JVM, ProcessingMetrics.SPAWN,
+                    process.getSpawnStartNanos());
+            try (InputStream in = process.getInputStream()) {
+                pcm = readSamples(in, expectedSamples(metadata, channels), sampleRate, channels, source);
+            }
+            int exitCode = process.waitFor();
+            processingMetrics.recordStage(ProcessingMetrics.ENGINE_JVM, ProcessingMetrics.RUN, spawned);
+            if (exitCode != 0) {
+                throw process.failure("FFmpeg decode failed with exit code: " + exitCode);
+            }
+        }
+        logger.debug("Decoded {} to {} samples ({} Hz, {} ch) in {} ms", source, pcm.length(), sampleRate,
+                channels, (System.nanoTime() - start) / 1_000_000);
+
+        synchronized (this) {
+            if (decoded.put(key, pcm) == null) {
+                decodedBytes += pcm.sizeInBytes();
+            }
+            evictToBudget();
+        }
+        return pcm;
+    }
+
+    /**
+     * Reads f32le samples straight into a float[] a chunk at a time, so the
+     * decoded audio is never held as bytes and floats at once. The array
+     * starts at the expected size and grows if the stream runs longer.
+     */
+    static PcmBuffer readSamples(InputStream in, long expectedSamples, int sampleRate, int channels, Path source)
+            throws IOException {
+        float[] samples = new float[(int) Math.min(MAX_SAMPLES, Math.max(expectedSamples, 64 * 1024))];
+        int length = 0;
+        byte[] chunk = new byte[64 * 1024];
+        ByteBuffer view = ByteBuffer.wrap(chunk).order(ByteOrder.LITTLE_ENDIAN);
+        // Bytes of a sample split across two reads wait at the start of the chunk
+        int pending = 0;
+        int read;
+        while ((read = in.read(chunk, pending, chunk.length - pending)) != -1) {
+            int available = pending + read;
+            int count = available / Float.BYTES;
+            if ((long) length + count > samples.length) {
+                if ((long) length + count > MAX_SAMPLES) {
+                    throw new IOException("Decoded audio of " + source + " is too long for the JVM engine");
+                }
+                long grown = Math.max((long) length + count, samples.length + (long) samples.length / 2);
+                samples = Arrays.copyOf(samples, (int) Math.min(MAX_SAMPLES, grown));
+            }
+            view.clear().limit(count * Float.BYTES);
+            view.asFloatBuffer().get(samples, length, count);
+            length += count;
+            pending = available - count * Float.BYTES;
+            System.arraycopy(chunk, count * Float.BYTES, chunk, 0, pending);
+        }
+        return new PcmBuffer(samples, length, sampleRate, channels);
+    }
+
+    // Sized from the probed duration with a second to spare, so a typical decode never grows the array
+    private static long expectedSamples(AudioMetadataService.AudioMetadata metadata, int channels) {
+        long perSecond = (long) metadata.sampleRate() * channels;
+        return metadata.durationMs() * perSecond / 1000 + perSecond;
+    }
+
+    private void encode(PcmBuffer pcm, Path output) throws Exception {
+        List<String> command = Arrays.asList("ffmpeg", "-y", "-v", "error",
+                "-f", "f32le", "-ar", String.valueOf(pcm.sampleRate()), "-ac", String.valueOf(pcm.channels()),
+                "-i", "-", "-f", "mp3", output.toString());
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        try (SupervisedProcess process = processSupervisor.start(pb)) {
+            long spawned = processingMetrics.recordStage(ProcessingMetrics.ENGINE_JVM, ProcessingMetrics.SPAWN,
+                    process.getSpawnStartNanos());
+
+            // Reuse one small byte buffer instead of materializing the whole file
+            ByteBuffer chunk = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            float[] samples = pcm.samples();
+            try (OutputStream out = process.getOutputStream()) {
+                for (int i = 0; i < pcm.length(); i++) {
+                    chunk.putFloat(samples[i]);
+                    if (!chunk.hasRemaining()) {
+                        out.write(chunk.array(), 0, chunk.position());
+                        chunk.clear();
+                    }
+                }
+                out.write(chunk.array(), 0, chunk.position());
+            }
+
+            int exitCode = process.waitFor();
+            processingMetrics.recordStage(ProcessingMetrics.ENGINE_JVM, ProcessingMetrics.RUN, spawned);
+            if (exitCode != 0) {
+                throw process.failure("FFmpeg encode failed with exit code: " + exitCode);
+            }
+        } catch (IOException | InterruptedException e) {
+            // Partial output of a failed, timed out or interrupted run
+            Files.deleteIfExists(output);
+            throw e;
+        }
+    }
+
+    private void evictToBudget() {
+        long budget = pcmCacheMb * 1024 * 1024;
+        Iterator<Map.Entry<String, PcmBuffer>> it = decoded.entrySet().iterator();
+        while (decodedBytes > budget && decoded.size() > 1 && it.hasNext()) {
+            decodedBytes -= it.next().getValue().sizeInBytes();
+            it.remove();
+        }
+    }
+}
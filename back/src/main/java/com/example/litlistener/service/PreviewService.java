@@ -0,0 +1,234 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.request.AudioProcessingRequest;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams processed audio straight from FFmpeg's stdout while it renders, so
+ * playback can start before the whole file has been processed. A client first
+ * asks for a preview ID, a random UUID the server generates; starting a new
+ * preview under the ID or cancelling it kills the running FFmpeg process, and
+ * only whoever holds the ID can do either. Ownership is not tied to the
+ * client's address, which users behind one proxy or NAT share. Previews do
+ * not take the supervisor's FFmpeg permits, since a paused listener can hold
+ * one open for as long as it likes; an ID streams one preview at a time and
+ * they are capped overall instead.
+ */
+@Service
+public class PreviewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreviewService.class);
+
+    @Autowired
+    private AudioProcessingService audioProcessingService;
+
+    @Autowired
+    private ProcessSupervisor processSupervisor;
+
+    @Value("${audio.preview.max-concurrent:4}")
+    private int maxConcurrent;
+
+    // IDs not streamed for this long are forgotten; the client asks for a new one
+    @Value("${audio.preview.idle-minutes:60}")
+    private long idleMinutes;
+
+    private Semaphore slots;
+    private final Map<String, Preview> previews = new ConcurrentHashMap<>();
+
+    /**
+     * One reserved stream of a preview. Hand it to streamPreview, which frees
+     * its slot unless a newer run of the same preview has taken it over.
+     */
+    public static final class Run {
+        private final Preview preview;
+        private final long generation;
+
+        private Run(Preview preview, long generation) {
+            this.preview = preview;
+            this.generation = generation;
+        }
+    }
+
+    private static final class Preview {
+        private final String id;
+        private volatile Instant lastUsed = Instant.now();
+        // Guarded by this
+        private long generation;
+        private boolean holdsSlot;
+        private SupervisedProcess process;
+
+        private Preview(String id) {
+            this.id = id;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        slots = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    /**
+     * Issues a new preview ID.
+     */
+    public String create() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(idleMinutes));
+        previews.values().removeIf(preview -> preview.lastUsed.isBefore(cutoff) && !isRunning(preview));
+
+        Preview preview = new Preview(UUID.randomUUID().toString());
+        previews.put(preview.id, preview);
+        return preview.id;
+    }
+
+    /**
+     * Whether the ID was issued and is still known.
+     */
+    public boolean exists(String previewId) {
+        return find(previewId) != null;
+    }
+
+    /**
+     * Reserves a stream for the preview. A preview that is already streaming
+     * hands its slot to the new run and its FFmpeg process is killed. Returns
+     * null for an unknown ID, or when the server already runs as many
+     * previews as allowed.
+     */
+    public Run reserve(String previewId) {
+        Preview preview = find(previewId);
+        if (preview == null) {
+            return null;
+        }
+        synchronized (preview) {
+            if (!preview.holdsSlot) {
+                if (!slots.tryAcquire()) {
+                    return null;
+                }
+                preview.holdsSlot = true;
+            } else if (preview.process != null) {
+                preview.process.cancel();
+            }
+            preview.process = null;
+            preview.lastUsed = Instant.now();
+            return new Run(preview, ++preview.generation);
+        }
+    }
+
+    /**
+     * Starts FFmpeg for the request and copies its mp3 output to the stream
+     * until it finishes, the client disconnects or the preview is cancelled.
+     */
+    public void streamPreview(Run run, AudioProcessingRequest request, OutputStream out) throws IOException {
+        Preview preview = run.preview;
+        try {
+            copyPreview(run, request, out);
+        } finally {
+            synchronized (preview) {
+                if (preview.generation == run.generation) {
+                    preview.process = null;
+                    if (preview.holdsSlot) {
+                        preview.holdsSlot = false;
+                        slots.release();
+                    }
+                }
+            }
+            preview.lastUsed = Instant.now();
+        }
+    }
+
+    private void copyPreview(Run run, AudioProcessingRequest request, OutputStream out) throws IOException {
+        Preview preview = run.preview;
+        List<String> filters = audioProcessingService.buildFilterChain(request, Paths.get(request.getFilePath()));
+        String filterChain = filters.isEmpty() ? "anull" : String.join(",", filters);
+
+        // Flush every packet so the first frames reach the client right away
+        List<String> command = new ArrayList<>(Arrays.asList("ffmpeg", "-v", "error", "-i", request.getFilePath(),
+                "-filter:a", filterChain, "-f", "mp3", "-flush_packets", "1", "pipe:1"));
+        // No timeout: a preview lasts as long as the client keeps listening
+        SupervisedProcess process;
+        try {
+            process = processSupervisor.startWithoutPermit(new ProcessBuilder(command), Duration.ZERO);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while starting preview " + preview.id);
+        }
+        synchronized (preview) {
+            if (preview.generation != run.generation) {
+                // Replaced or cancelled while FFmpeg was starting
+                process.close();
+                return;
+            }
+            preview.process = process;
+        }
+
+        long start = System.nanoTime();
+        long firstByteMs = -1;
+        long bytes = 0;
+        byte[] buffer = new byte[16 * 1024];
+        try (InputStream in = process.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                out.flush();
+                if (firstByteMs < 0) {
+                    firstByteMs = (System.nanoTime() - start) / 1_000_000;
+                }
+                bytes += read;
+            }
+        } catch (IOException e) {
+            // Client went away or moved on to another preview
+            logger.debug("Preview {} stopped: {}", preview.id, e.getMessage());
+        } finally {
+            process.close();
+        }
+        logger.info("Preview {} streamed {} bytes, first byte after {} ms", preview.id, bytes, firstByteMs);
+    }
+
+    /**
+     * Kills the running preview with the given ID. Returns false if none was
+     * running.
+     */
+    public boolean cancel(String previewId) {
+        Preview preview = find(previewId);
+        if (preview == null) {
+            return false;
+        }
+        synchronized (preview) {
+            if (preview.process == null) {
+                return false;
+            }
+            preview.process.cancel();
+            return true;
+        }
+    }
+
+    private Preview find(String previewId) {
+        return previewId != null ? previews.get(previewId) : null;
+    }
+
+    private boolean isRunning(Preview preview) {
+        synchronized (preview) {
+            return preview.holdsSlot;
+        }
+    }
+}
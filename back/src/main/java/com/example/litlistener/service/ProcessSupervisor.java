@@ -0,0 +1,188 @@
+package com.example.litlistener.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts every external tool the application runs (FFmpeg, ffprobe, Whisper).
+ * A process's stderr is drained on a virtual thread into a bounded ring of
+ * its last lines, so a chatty tool never stalls on a full pipe. A watchdog
+ * kills the process and its descendants when the run's timeout passes. FFmpeg
+ * runs first take a permit, which keeps them to a configured share of the
+ * cores; ffprobe and Whisper have limits of their own.
+ */
+@Service
+public class ProcessSupervisor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessSupervisor.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // FFmpeg processes allowed at once, as a share of the available cores
+    @Value("${audio.ffmpeg.core-share:1.0}")
+    private double coreShare;
+
+    // Default per-run timeout for FFmpeg; 0 disables it
+    @Value("${audio.ffmpeg.timeout-minutes:30}")
+    private long ffmpegTimeoutMinutes;
+
+    @Value("${audio.process.log-lines:50}")
+    private int logLines;
+
+    private int ffmpegLimit;
+    private Semaphore ffmpegPermits;
+    private ExecutorService drainers;
+    private ScheduledExecutorService watchdog;
+    private final Set<SupervisedProcess> running = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        ffmpegLimit = Math.max(1, (int) Math.round(Runtime.getRuntime().availableProcessors() * coreShare));
+        ffmpegPermits = new Semaphore(ffmpegLimit, true);
+        drainers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("process-output-", 0).factory());
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "process-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        watchdog = scheduler;
+
+        Gauge.builder("audio.ffmpeg.running", this, supervisor -> ffmpegLimit - supervisor.ffmpegPermits.availablePermits())
+                .description("FFmpeg processes running, out of audio.ffmpeg.limit")
+                .register(meterRegistry);
+        Gauge.builder("audio.ffmpeg.limit", this, supervisor -> supervisor.ffmpegLimit)
+                .register(meterRegistry);
+        logger.info("Running at most {} FFmpeg process(es) at once", ffmpegLimit);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running.forEach(SupervisedProcess::close);
+        watchdog.shutdownNow();
+        drainers.shutdownNow();
+    }
+
+    /**
+     * Starts the process with the default FFmpeg timeout.
+     */
+    public SupervisedProcess start(ProcessBuilder builder) throws IOException, InterruptedException {
+        return start(builder, Duration.ofMinutes(ffmpegTimeoutMinutes));
+    }
+
+    /**
+     * Starts the process, waiting for a permit first if it is FFmpeg. Stdout is
+     * left as the builder configured it; unless stderr is merged into stdout,
+     * the supervisor reads it. A zero timeout means the run is never timed out.
+     */
+    public SupervisedProcess start(ProcessBuilder builder, Duration timeout) throws IOException, InterruptedException {
+        return start(builder, timeout, true);
+    }
+
+    /**
+     * Starts FFmpeg without a permit, for a process that only consumes what
+     * permit-holding processes produce and so cannot outpace them. Holding a
+     * permit while waiting on its producers could deadlock when permits run out.
+     */
+    public SupervisedProcess startConsumer(ProcessBuilder builder) throws IOException, InterruptedException {
+        return start(builder, Duration.ofMinutes(ffmpegTimeoutMinutes), false);
+    }
+
+    /**
+     * Starts FFmpeg without a permit, for a run whose pace a client sets, such
+     * as a preview that blocks while the listener is paused. Holding a permit
+     * that long would starve renders, so the caller caps these runs itself.
+     */
+    public SupervisedProcess startWithoutPermit(ProcessBuilder builder, Duration timeout)
+            throws IOException, InterruptedException {
+        return start(builder, timeout, false);
+    }
+
+    private SupervisedProcess start(ProcessBuilder builder, Duration timeout, boolean takePermit)
+            throws IOException, InterruptedException {
+        String name = Path.of(builder.command().get(0)).getFileName().toString();
+        boolean limited = takePermit && (name.equals("ffmpeg") || name.equals("ffmpeg.exe"));
+        if (limited && !ffmpegPermits.tryAcquire()) {
+            long waitStart = System.nanoTime();
+            ffmpegPermits.acquire();
+            Timer.builder("audio.ffmpeg.permit.wait")
+                    .description("Time FFmpeg runs waited for a free permit")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        }
+
+        boolean drainStderr = !builder.redirectErrorStream();
+        if (drainStderr) {
+            builder.redirectError(ProcessBuilder.Redirect.PIPE);
+        }
+        long spawnStart = System.nanoTime();
+        Process process;
+        try {
+            process = builder.start();
+        } catch (IOException e) {
+            if (limited) {
+                ffmpegPermits.release();
+            }
+            throw e;
+        }
+
+        SupervisedProcess supervised = new SupervisedProcess(name, process, timeout, spawnStart, logLines);
+        running.add(supervised);
+        if (drainStderr) {
+            drainers.execute(() -> supervised.drain(process.getErrorStream()));
+        } else {
+            supervised.noOutputToDrain();
+        }
+        ScheduledFuture<?> deadline = timeout.isZero() ? null
+                : watchdog.schedule(() -> timedOut(supervised), timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        // The permit follows the process rather than the caller, so it is returned however the run ends
+        process.onExit().whenComplete((exited, error) -> {
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+            running.remove(supervised);
+            if (limited) {
+                ffmpegPermits.release();
+            }
+        });
+        return supervised;
+    }
+
+    /**
+     * Reads FFmpeg's -progress output from the process's stdout into the
+     * progress, on the same threads that drain stderr. The process must have
+     * been started with RenderProgress.FFMPEG_ARGS and stdout left as a pipe.
+     */
+    public void followProgress(SupervisedProcess process, RenderProgress progress) {
+        drainers.execute(() -> progress.read(process.getInputStream()));
+    }
+
+    private void timedOut(SupervisedProcess supervised) {
+        meterRegistry.counter("audio.process.timeouts", "tool", supervised.getName()).increment();
+        supervised.timeOut();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.litlistener.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Meters for rendering: a timer per stage of each engine, and per effect the
+ * renders in flight and the source bytes processed. Effects are tagged with
+ * their FFmpeg filter name (asetrate, volume, acompressor, bandpass), which
+ * keeps the tag set small and the same for both engines.
+ */
+@Component
+public class ProcessingMetrics {
+
+    public static final String ENGINE_FFMPEG = "ffmpeg";
+    public static final String ENGINE_JVM = AudioProcessingService.ENGINE_JVM;
+
+    // Starting the process, waiting for it, and moving the output into the rendition cache
+    public static final String SPAWN = "spawn";
+    public static final String RUN = "run";
+    public static final String RENAME = "rename";
+    // Effects applied in Java by the JVM engine
+    public static final String DSP = "dsp";
+    // Segmented FFmpeg renders: one segment's process, and stitching plus the single encode
+    public static final String SEGMENT = "segment";
+    public static final String JOIN = "join";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Records the time since startNanos against the stage and returns the
+     * current time, so consecutive stages can be chained.
+     */
+    public long recordStage(String engine, String stage, long startNanos) {
+        long now = System.nanoTime();
+        Timer.builder("audio.ffmpeg.stage")
+                .tag("engine", engine)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    public void started(Collection<String> effects) {
+        effects.forEach(effect -> inFlight(effect).incrementAndGet());
+    }
+
+    public void finished(Collection<String> effects) {
+        effects.forEach(effect -> inFlight(effect).decrementAndGet());
+    }
+
+    /**
+     * A request that found an identical render running and waited for it.
+     */
+    public void coalesced() {
+        meterRegistry.counter("audio.processing.coalesced").increment();
+    }
+
+    public void processed(Collection<String> effects, long sourceBytes) {
+        for (String effect : effects) {
+            meterRegistry.counter("audio.processing.bytes", "effect", effect).increment(sourceBytes);
+        }
+    }
+
+    /**
+     * The effect names of a filter chain built by AudioProcessingService.
+     */
+    public static List<String> effectsOf(List<String> filters) {
+        return filters.stream()
+                .map(filter -> filter.indexOf('=') < 0 ? filter : filter.substring(0, filter.indexOf('=')))
+                .toList();
+    }
+
+    private AtomicInteger inFlight(String effect) {
+        return inFlight.computeIfAbsent(effect, name -> {
+            AtomicInteger count = new AtomicInteger();
+            Gauge.builder("audio.processing.active", count, AtomicInteger::get)
+                    .description("Renders in progress that apply the effect")
+                    .tag("effect", name)
+                    .register(meterRegistry);
+            return count;
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.entity.ProcessingPreset;
+import com.example.litlistener.repository.ProcessingPresetRepository;
+import com.example.litlistener.request.AudioProcessingRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Named processing presets, stored in the database so every operator sees
+ * the same ones.
+ */
+@Service
+public class ProcessingPresetService {
+
+    @Autowired
+    private ProcessingPresetRepository processingPresetRepository;
+
+    public List<ProcessingPreset> getPresets() {
+        return processingPresetRepository.findAllByOrderByNameAsc();
+    }
+
+    public ProcessingPreset getPreset(String name) {
+        return processingPresetRepository.findByName(name);
+    }
+
+    /**
+     * Creates or replaces the preset with the settings of the request.
+     * Throws IllegalArgumentException for a blank or overlong name, or
+     * settings that would leave the audio unchanged.
+     */
+    @Transactional
+    public ProcessingPreset savePreset(String name, AudioProcessingRequest settings) {
+        if (name == null || name.isBlank() || name.length() > 100) {
+            throw new IllegalArgumentException("Preset name must be 1 to 100 characters.");
+        }
+        if (!AudioProcessingService.isValidPitchFactor(settings.getPitchFactor())
+                && !AudioProcessingService.isValidAmplificationFactor(settings.getAmplificationFactor())
+                && !AudioProcessingService.isValidCompression(settings.getCompressionThreshold(),
+                        settings.getCompressionRatio())
+                && !AudioProcessingService.isValidFiltering(settings.getFilterFrequency(),
+                        settings.getFilterBandwidth())) {
+            throw new IllegalArgumentException("Preset does not apply any effect.");
+        }
+
+        ProcessingPreset preset = processingPresetRepository.findByName(name);
+        if (preset == null) {
+            preset = new ProcessingPreset(name);
+        }
+        preset.setPitchFactor(settings.getPitchFactor());
+        preset.setAmplificationFactor(settings.getAmplificationFactor());
+        preset.setCompressionThreshold(settings.getCompressionThreshold());
+        preset.setCompressionRatio(settings.getCompressionRatio());
+        preset.setFilterFrequency(settings.getFilterFrequency());
+        preset.setFilterBandwidth(settings.getFilterBandwidth());
+        preset.setEngine(settings.getEngine());
+        preset.setUpdatedAt(Instant.now());
+        return processingPresetRepository.save(preset);
+    }
+
+    @Transactional
+    public boolean deletePreset(String name) {
+        ProcessingPreset preset = processingPresetRepository.findByName(name);
+        if (preset == null) {
+            return false;
+        }
+        processingPresetRepository.delete(preset);
+        return true;
+    }
+
+    /**
+     * The processing request the preset stands for, for one file.
+     */
+    public static AudioProcessingRequest toRequest(ProcessingPreset preset, String filePath) {
+        AudioProcessingRequest request = new AudioProcessingRequest();
+        request.setFilePath(filePath);
+        request.setPitchFactor(preset.getPitchFactor());
+        request.setAmplificationFactor(preset.getAmplificationFactor());
+        request.setCompressionThreshold(preset.getCompressionThreshold());
+        request.setCompressionRatio(preset.getCompressionRatio());
+        request.setFilterFrequency(preset.getFilterFrequency());
+        request.setFilterBandwidth(preset.getFilterBandwidth());
+        request.setEngine(preset.getEngine());
+        return request;
+    }
+}
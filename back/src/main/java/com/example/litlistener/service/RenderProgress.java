@@ -0,0 +1,120 @@
+package com.example.litlistener.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Progress of one render, read from FFmpeg's -progress output: blocks of
+ * key=value lines, each ending with progress=continue or progress=end.
+ * Requests coalesced onto the same render share one instance. Values are
+ * only ever replaced, so readers see the latest block without locking.
+ */
+public class RenderProgress {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenderProgress.class);
+
+    // Machine-readable progress on stdout about twice a second, instead of the stats line on stderr
+    public static final List<String> FFMPEG_ARGS = List.of("-progress", "pipe:1", "-nostats");
+
+    private final long expectedMs;
+    private volatile long outTimeMs;
+    private volatile double speed;
+    // Bumped at the end of every block, so a reader can tell whether anything changed
+    private volatile long version;
+
+    /**
+     * The expected output duration; 0 when it is unknown, which leaves the
+     * percentage and the ETA unset.
+     */
+    public RenderProgress(long expectedMs) {
+        this.expectedMs = expectedMs;
+    }
+
+    /**
+     * Percent of the output rendered, or null while it cannot be told.
+     */
+    public Double getPercent() {
+        if (expectedMs <= 0 || version == 0) {
+            return null;
+        }
+        return Math.min(100.0, outTimeMs * 100.0 / expectedMs);
+    }
+
+    /**
+     * Seconds of audio rendered per second, or 0 before FFmpeg reports it.
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Seconds left at the current speed, or null while it cannot be told.
+     */
+    public Long getEtaSeconds() {
+        if (expectedMs <= 0 || speed <= 0) {
+            return null;
+        }
+        return Math.round(Math.max(0, expectedMs - outTimeMs) / 1000.0 / speed);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Reads progress blocks until the stream ends, which is when FFmpeg
+     * exits. Runs on the supervisor's output threads.
+     */
+    void read(InputStream in) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                accept(line);
+            }
+        } catch (IOException e) {
+            // The stream closes under us when the process is killed
+            logger.debug("Stopped reading FFmpeg progress: {}", e.getMessage());
+        }
+    }
+
+    void accept(String line) {
+        int separator = line.indexOf('=');
+        if (separator < 0) {
+            return;
+        }
+        String key = line.substring(0, separator).trim();
+        String value = line.substring(separator + 1).trim();
+        try {
+            switch (key) {
+                // out_time_ms is also in microseconds, a long-standing FFmpeg misnomer
+                case "out_time_us", "out_time_ms" -> {
+                    if (!value.equals("N/A")) {
+                        outTimeMs = Math.max(0, Long.parseLong(value) / 1000);
+                    }
+                }
+                case "speed" -> {
+                    if (value.endsWith("x")) {
+                        speed = Double.parseDouble(value.substring(0, value.length() - 1));
+                    }
+                }
+                case "progress" -> {
+                    if (value.equals("end") && expectedMs > 0) {
+                        outTimeMs = Math.max(outTimeMs, expectedMs);
+                    }
+                    version++;
+                }
+                default -> {
+                }
+            }
+        } catch (NumberFormatException e) {
+            logger.debug("Ignoring FFmpeg progress line {}", line);
+        }
+    }
+}
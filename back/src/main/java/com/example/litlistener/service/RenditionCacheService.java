@@ -0,0 +1,263 @@
+package com.example.litlistener.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Keeps processed renditions in a cache directory, keyed by the content hash of
+ * the source file and the normalized filter chain applied to it. The directory
+ * is held under a disk budget by evicting the least recently used renditions.
+ */
+@Service
+public class RenditionCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenditionCacheService.class);
+
+    @Value("${audio.cache.dir:/app/audio/renditions}")
+    private String cacheDir;
+
+    @Value("${audio.cache.max-size-mb:2048}")
+    private long maxSizeMb;
+
+    // Sources whose content hash is remembered; an evicted one is hashed again on its next render
+    @Value("${audio.cache.source-hashes:10000}")
+    private long maxSourceHashes;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WaveformService waveformService;
+
+    // Access-ordered, so iteration starts at the least recently used rendition
+    private final LinkedHashMap<String, Rendition> renditions = new LinkedHashMap<>(16, 0.75f, true);
+    private Cache<Path, SourceHash> sourceHashes;
+    private long totalBytes;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    private record SourceHash(long size, long lastModified, String hash) {
+    }
+
+    private record Rendition(Path path, long size) {
+    }
+
+    @PostConstruct
+    void init() {
+        sourceHashes = Caffeine.newBuilder().maximumSize(maxSourceHashes).build();
+        hits = meterRegistry.counter("audio.cache.requests", "result", "hit");
+        misses = meterRegistry.counter("audio.cache.requests", "result", "miss");
+        evictions = meterRegistry.counter("audio.cache.evictions");
+        Gauge.builder("audio.cache.size", this, RenditionCacheService::getTotalBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        Path dir = Paths.get(cacheDir);
+
+        // Rebuild the index from disk, oldest first so it ends up in LRU order
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            logger.warn("Could not create rendition cache folder {}: {}", dir, e.getMessage());
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> existing = files.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().endsWith(".tmp"))
+                    .sorted(Comparator.comparingLong(RenditionCacheService::lastModified))
+                    .toList();
+            synchronized (this) {
+                for (Path path : existing) {
+                    Rendition rendition = new Rendition(path, sizeOf(path));
+                    renditions.put(keyOf(path), rendition);
+                    totalBytes += rendition.size();
+                }
+                evictToBudget();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not index rendition cache folder {}: {}", dir, e.getMessage());
+        }
+        logger.info("Rendition cache at {} holds {} file(s), {} bytes", dir, renditions.size(), totalBytes);
+    }
+
+    /**
+     * Builds the cache key for applying the given filter chain to the source file.
+     */
+    public String keyFor(Path source, String filterChain) throws IOException {
+        return sha256(contentHash(source) + "|" + filterChain).substring(0, 16);
+    }
+
+    /**
+     * Returns the cached rendition for the key, or null on a miss.
+     */
+    public synchronized Path lookup(String key) {
+        Rendition rendition = renditions.get(key);
+        if (rendition != null && !Files.exists(rendition.path())) {
+            renditions.remove(key);
+            totalBytes -= rendition.size();
+            waveformService.delete(List.of(rendition.path()));
+            rendition = null;
+        }
+        (rendition != null ? hits : misses).increment();
+        return rendition != null ? rendition.path() : null;
+    }
+
+    /**
+     * Where the rendition for the key should live once it has been rendered.
+     */
+    public Path pathFor(Path source, String key) {
+        String name = source.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        return Paths.get(cacheDir, stem + "_" + key + ".mp3");
+    }
+
+    /**
+     * A unique scratch file to render into before committing it to the cache.
+     */
+    public Path tempPathFor(Path target) {
+        return target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+    }
+
+    /**
+     * Moves a freshly rendered file into place and evicts old renditions if the
+     * cache is over budget.
+     */
+    public void commit(String key, Path temp, Path target) throws IOException {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Rendition rendition = new Rendition(target, sizeOf(target));
+
+        synchronized (this) {
+            Rendition previous = renditions.put(key, rendition);
+            if (previous != null) {
+                // A concurrent render of the same key was overwritten in place
+                totalBytes -= previous.size();
+            }
+            totalBytes += rendition.size();
+            evictToBudget();
+        }
+    }
+
+    /**
+     * Forgets the content hashes of sources that were removed from the folder.
+     */
+    public void forgetSources(Collection<Path> sources) {
+        for (Path source : sources) {
+            sourceHashes.invalidate(source.toAbsolutePath().normalize());
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void evictToBudget() {
+        long budget = maxSizeMb * 1024 * 1024;
+        Iterator<Map.Entry<String, Rendition>> it = renditions.entrySet().iterator();
+        // Always keep the most recent rendition, even if it alone exceeds the budget
+        while (totalBytes > budget && renditions.size() > 1 && it.hasNext()) {
+            Rendition rendition = it.next().getValue();
+            it.remove();
+            totalBytes -= rendition.size();
+            Path path = rendition.path();
+            try {
+                Files.deleteIfExists(path);
+                evictions.increment();
+                logger.debug("Evicted rendition {}", path);
+            } catch (IOException e) {
+                logger.warn("Could not delete evicted rendition {}: {}", path, e.getMessage());
+            }
+            waveformService.delete(List.of(path));
+        }
+    }
+
+    private String contentHash(Path source) throws IOException {
+        long size = Files.size(source);
+        long lastModified = lastModified(source);
+        Path key = source.toAbsolutePath().normalize();
+
+        SourceHash cached = sourceHashes.getIfPresent(key);
+        if (cached != null && cached.size() == size && cached.lastModified() == lastModified) {
+            return cached.hash();
+        }
+
+        MessageDigest digest = newDigest();
+        try (InputStream in = Files.newInputStream(source)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        String hash = HexFormat.of().formatHex(digest.digest());
+        sourceHashes.put(key, new SourceHash(size, lastModified, hash));
+        return hash;
+    }
+
+    private static String keyOf(Path rendition) {
+        String name = rendition.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        return stem.substring(stem.lastIndexOf('_') + 1);
+    }
+
+    private static String sha256(String value) {
+        return HexFormat.of().formatHex(newDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
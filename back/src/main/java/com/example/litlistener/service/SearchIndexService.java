@@ -0,0 +1,378 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.entity.AudioFile;
+import com.example.litlistener.repository.AudioFileRepository;
+import com.example.litlistener.response.SearchResultResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the transcript, Whisper output, tag and field
+ * of every audio file. Supports ranked (BM25) term queries, prefix terms
+ * ("radi*") and quoted phrases; all clauses of a query must match. The index is
+ * rebuilt in the background at startup and kept current by the services that
+ * change those columns.
+ */
+@Service
+public class SearchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexService.class);
+
+    // Matches found in the short categorical fields count for more than free text
+    private static final Map<String, Float> FIELD_WEIGHTS = Map.of(
+            "tag", 3f, "field", 3f, "transcript", 1.5f, "whisper", 1f);
+    private static final Pattern QUERY_PART = Pattern.compile("\"([^\"]*)\"|(\\S+)");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    @Autowired
+    private AudioFileRepository audioFileRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> (file id -> weighted term frequency); sorted for prefix lookups
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private double totalLength;
+
+    // Files updated while a rebuild is running; the rebuild must not overwrite them
+    private Set<Long> updatedDuringRebuild;
+
+    private record Doc(Long id, String name, String tag, String field, Map<String, String[]> tokens, float length) {
+    }
+
+    private record Clause(List<String> terms, boolean prefix) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread thread = new Thread(this::rebuild, "search-index-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Re-reads every audio file in id order and indexes it.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            updatedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long lastId = 0;
+        int count = 0;
+        try {
+            List<AudioFile> batch;
+            do {
+                batch = audioFileRepository.findByIdGreaterThanOrderByIdAsc(lastId,
+                        PageRequest.of(0, REBUILD_BATCH_SIZE));
+                lock.writeLock().lock();
+                try {
+                    for (AudioFile audioFile : batch) {
+                        if (!updatedDuringRebuild.contains(audioFile.getId())) {
+                            put(audioFile);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                count += batch.size();
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            logger.error("Search index rebuild failed: {}", e.getMessage(), e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                updatedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info("Search index rebuilt from {} file(s), {} term(s) in {} ms", count, postings.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Adds or replaces the indexed text of one audio file.
+     */
+    public void index(AudioFile audioFile) {
+        lock.writeLock().lock();
+        try {
+            if (updatedDuringRebuild != null) {
+                updatedDuringRebuild.add(audioFile.getId());
+            }
+            put(audioFile);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAll(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                if (updatedDuringRebuild != null) {
+                    updatedDuringRebuild.add(id);
+                }
+                remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a query and returns up to limit results, best first.
+     */
+    public List<SearchResultResponse> search(String query, int limit) {
+        List<Clause> clauses = parse(query);
+        if (clauses.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (Clause clause : clauses) {
+                Map<Long, Float> clauseScores = score(clause);
+                if (scores == null) {
+                    scores = clauseScores;
+                } else {
+                    // Every clause must match; walk the smaller side of the intersection
+                    Map<Long, Float> smaller = scores.size() <= clauseScores.size() ? scores : clauseScores;
+                    Map<Long, Float> larger = smaller == scores ? clauseScores : scores;
+                    Map<Long, Float> combined = new HashMap<>();
+                    for (Map.Entry<Long, Float> entry : smaller.entrySet()) {
+                        Float other = larger.get(entry.getKey());
+                        if (other != null) {
+                            combined.put(entry.getKey(), entry.getValue() + other);
+                        }
+                    }
+                    scores = combined;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Clause> phrases = clauses.stream().filter(clause -> clause.terms().size() > 1).toList();
+            if (!phrases.isEmpty()) {
+                return topPhraseMatches(scores, phrases, limit);
+            }
+
+            // Keep only the best `limit` hits in a min-heap instead of sorting every match
+            PriorityQueue<Map.Entry<Long, Float>> top = new PriorityQueue<>(limit + 1,
+                    Map.Entry.comparingByValue());
+            for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                if (top.size() < limit) {
+                    top.add(entry);
+                } else if (entry.getValue() > top.peek().getValue()) {
+                    top.poll();
+                    top.add(entry);
+                }
+            }
+
+            List<SearchResultResponse> results = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                Map.Entry<Long, Float> entry = top.poll();
+                Doc doc = docs.get(entry.getKey());
+                results.add(new SearchResultResponse(doc.id(), doc.name(), doc.tag(), doc.field(), entry.getValue()));
+            }
+            Collections.reverse(results);
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Walks candidates best first and verifies the phrases until enough hits are found
+    private List<SearchResultResponse> topPhraseMatches(Map<Long, Float> scores, List<Clause> phrases, int limit) {
+        List<Map.Entry<Long, Float>> candidates = new ArrayList<>(scores.entrySet());
+        candidates.sort(Map.Entry.<Long, Float>comparingByValue().reversed());
+
+        List<SearchResultResponse> results = new ArrayList<>(limit);
+        for (Map.Entry<Long, Float> candidate : candidates) {
+            Doc doc = docs.get(candidate.getKey());
+            if (phrases.stream().allMatch(phrase -> containsPhrase(doc, phrase.terms()))) {
+                results.add(new SearchResultResponse(doc.id(), doc.name(), doc.tag(), doc.field(),
+                        candidate.getValue()));
+                if (results.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    private Map<Long, Float> score(Clause clause) {
+        if (clause.prefix()) {
+            String prefix = clause.terms().get(0);
+            Map<Long, Float> scores = new HashMap<>();
+            for (Map.Entry<String, Map<Long, Float>> term : postings
+                    .subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+                scoreTerm(term.getValue(), scores);
+            }
+            return scores;
+        }
+
+        Map<Long, Float> scores = null;
+        for (String term : clause.terms()) {
+            Map<Long, Float> termScores = new HashMap<>();
+            scoreTerm(postings.getOrDefault(term, Map.of()), termScores);
+            if (scores != null) {
+                Map<Long, Float> previous = scores;
+                termScores.keySet().retainAll(previous.keySet());
+                termScores.replaceAll((id, score) -> score + previous.get(id));
+            }
+            scores = termScores;
+        }
+        // Phrase adjacency is checked later, only for as many hits as are returned
+        return scores;
+    }
+
+    // BM25 over weighted term frequencies
+    private void scoreTerm(Map<Long, Float> termPostings, Map<Long, Float> scores) {
+        int n = docs.size();
+        double idf = Math.log(1 + (n - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+        double averageLength = n == 0 ? 1 : Math.max(1, totalLength / n);
+        for (Map.Entry<Long, Float> posting : termPostings.entrySet()) {
+            float tf = posting.getValue();
+            float length = docs.get(posting.getKey()).length();
+            double score = idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+            scores.merge(posting.getKey(), (float) score, Float::sum);
+        }
+    }
+
+    private static boolean containsPhrase(Doc doc, List<String> phrase) {
+        for (String[] tokens : doc.tokens().values()) {
+            outer:
+            for (int i = 0; i + phrase.size() <= tokens.length; i++) {
+                for (int j = 0; j < phrase.size(); j++) {
+                    if (!tokens[i + j].equals(phrase.get(j))) {
+                        continue outer;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Clause> parse(String query) {
+        List<Clause> clauses = new ArrayList<>();
+        if (query == null) {
+            return clauses;
+        }
+        Matcher matcher = QUERY_PART.matcher(query);
+        while (matcher.find()) {
+            if (matcher.group(1) != null) {
+                List<String> terms = tokenize(matcher.group(1));
+                if (!terms.isEmpty()) {
+                    clauses.add(new Clause(terms, false));
+                }
+                continue;
+            }
+            String word = matcher.group(2);
+            boolean prefix = word.endsWith("*");
+            List<String> terms = tokenize(prefix ? word.substring(0, word.length() - 1) : word);
+            if (terms.isEmpty()) {
+                continue;
+            }
+            // "foo-bar" tokenizes to two terms and is treated as a phrase
+            clauses.add(prefix && terms.size() == 1 ? new Clause(terms, true) : new Clause(terms, false));
+        }
+        return clauses;
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Callers hold the write lock
+    private void put(AudioFile audioFile) {
+        remove(audioFile.getId());
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("tag", audioFile.getTag());
+        fields.put("field", audioFile.getField());
+        fields.put("transcript", audioFile.getTranscript());
+        fields.put("whisper", audioFile.getWhisper());
+
+        Map<String, String[]> tokens = new HashMap<>();
+        float length = 0;
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            List<String> fieldTokens = tokenize(field.getValue());
+            if (fieldTokens.isEmpty()) {
+                continue;
+            }
+            float weight = FIELD_WEIGHTS.get(field.getKey());
+            for (String token : fieldTokens) {
+                postings.computeIfAbsent(token, t -> new HashMap<>()).merge(audioFile.getId(), weight, Float::sum);
+            }
+            tokens.put(field.getKey(), fieldTokens.toArray(new String[0]));
+            length += fieldTokens.size();
+        }
+
+        if (!tokens.isEmpty()) {
+            docs.put(audioFile.getId(), new Doc(audioFile.getId(), audioFile.getName(), audioFile.getTag(),
+                    audioFile.getField(), tokens, length));
+            totalLength += length;
+        }
+    }
+
+    private void remove(Long id) {
+        Doc doc = docs.remove(id);
+        if (doc == null) {
+            return;
+        }
+        totalLength -= doc.length();
+        for (String[] tokens : doc.tokens().values()) {
+            for (String token : tokens) {
+                Map<Long, Float> termPostings = postings.get(token);
+                if (termPostings != null && termPostings.remove(id) != null && termPostings.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.entity.Transcription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable interval index over one file's segments. Segments are sorted by
+ * start, and maxEnd[i] holds the largest end among the first i + 1 of them.
+ * Since maxEnd never decreases, both edges of an overlap query are binary
+ * searches, and only segments between them are looked at.
+ */
+final class SegmentIndex {
+
+    private final Transcription[] segments;
+    private final long[] starts;
+    private final long[] maxEnds;
+
+    SegmentIndex(List<Transcription> segments) {
+        this.segments = segments.toArray(new Transcription[0]);
+        Arrays.sort(this.segments, Comparator.comparingLong(Transcription::getStartMs));
+        starts = new long[this.segments.length];
+        maxEnds = new long[this.segments.length];
+        long maxEnd = Long.MIN_VALUE;
+        for (int i = 0; i < this.segments.length; i++) {
+            starts[i] = this.segments[i].getStartMs();
+            maxEnd = Math.max(maxEnd, this.segments[i].getEndMs());
+            maxEnds[i] = maxEnd;
+        }
+    }
+
+    int size() {
+        return segments.length;
+    }
+
+    /**
+     * Segments overlapping [fromMs, toMs), in start order.
+     */
+    List<Transcription> overlapping(long fromMs, long toMs) {
+        // Everything before first ends at or before fromMs; everything from last on starts at or after toMs
+        int first = firstGreater(maxEnds, fromMs);
+        int last = firstAtLeast(starts, toMs);
+        List<Transcription> result = new ArrayList<>();
+        for (int i = first; i < last; i++) {
+            if (segments[i].getEndMs() > fromMs) {
+                result.add(segments[i]);
+            }
+        }
+        return result;
+    }
+
+    private static int firstGreater(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] > value) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static int firstAtLeast(long[] sorted, long value) {
+        return firstGreater(sorted, value - 1);
+    }
+}
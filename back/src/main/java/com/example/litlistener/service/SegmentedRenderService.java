@@ -0,0 +1,389 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.request.AudioProcessingRequest;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Optional FFmpeg mode for long recordings. One FFmpeg run uses about one
+ * core, so this mode runs the filter chain on time segments in parallel, one
+ * process per segment, and the segments are stitched back together in order
+ * and encoded once. Whether that is faster depends on the host and the
+ * filters; SegmentedRenderBenchmark compares both paths, and the mode is off
+ * by default. Each segment starts a pre-roll early, so stateful filters
+ * (compressor, band-pass) and the decoder have settled before its own audio
+ * begins. Neighbours are crossfaded over a few milliseconds so the joins are
+ * inaudible. Segments are kept as raw float PCM because separately encoded
+ * mp3 parts would each carry encoder padding at the join.
+ */
+@Service
+public class SegmentedRenderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentedRenderService.class);
+
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    @Autowired
+    private AudioMetadataService audioMetadataService;
+
+    @Autowired
+    private ProcessSupervisor processSupervisor;
+
+    @Autowired
+    private ProcessingMetrics processingMetrics;
+
+    @Value("${audio.processing.segment.enabled:false}")
+    private boolean enabled;
+
+    // Shorter files are rendered in one pass
+    @Value("${audio.processing.segment.min-duration-seconds:900}")
+    private long minDurationSeconds;
+
+    @Value("${audio.processing.segment.seconds:300}")
+    private long segmentSeconds;
+
+    @Value("${audio.processing.segment.preroll-ms:2000}")
+    private long prerollMs;
+
+    @Value("${audio.processing.segment.crossfade-ms:50}")
+    private long crossfadeMs;
+
+    // How far a join may be moved to line the segments up; seeking a VBR mp3 is not sample exact
+    @Value("${audio.processing.segment.max-drift-ms:30}")
+    private long maxDriftMs;
+
+    // 0 uses one thread per available core; FFmpeg's permits still apply
+    @Value("${audio.processing.segment.parallelism:0}")
+    private int parallelism;
+
+    // Raw parts waiting on disk per render, rendering or stitched; at least one part is always allowed
+    @Value("${audio.processing.segment.max-buffer-mb:512}")
+    private long maxBufferMb;
+
+    // Where the parts are written; empty uses java.io.tmpdir
+    @Value("${audio.processing.segment.tmp-dir:}")
+    private String tmpDir;
+
+    private int threads;
+    private ExecutorService segments;
+
+    @PostConstruct
+    void init() {
+        threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        segments = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "audio-segment");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        segments.shutdownNow();
+    }
+
+    /**
+     * Whether the source is long enough to be rendered in segments.
+     */
+    public boolean appliesTo(Path source) throws IOException {
+        if (!enabled) {
+            return false;
+        }
+        AudioMetadataService.AudioMetadata metadata = audioMetadataService.metadataOf(source);
+        long segmentMs = segmentSeconds * 1000;
+        return metadata.sampleRate() > 0 && metadata.channels() > 0 && segmentMs > 0
+                && metadata.durationMs() >= Math.max(minDurationSeconds * 1000, 2 * segmentMs);
+    }
+
+    /**
+     * Renders the filter chain over the source into an mp3 at the output path.
+     * The result has the source's sample rate and channel count. Progress is
+     * the encoder's, which trails the segments by at most the render window.
+     */
+    public void render(Path source, Path output, List<String> filters, AudioProcessingRequest request,
+            RenderProgress progress) throws Exception {
+        AudioMetadataService.AudioMetadata metadata = audioMetadataService.metadataOf(source);
+        int sampleRate = metadata.sampleRate();
+        int channels = metadata.channels();
+        // Output frames per input frame; asetrate changes the duration by the pitch factor
+        double ratio = AudioProcessingService.isValidPitchFactor(request.getPitchFactor())
+                ? 1 / request.getPitchFactor() : 1;
+        String chain = String.join(",", filters) + ",aresample=" + sampleRate;
+
+        // Boundaries are whole input frames, so every segment is seeked to an exact sample
+        long segmentFrames = segmentSeconds * sampleRate;
+        long prerollFrames = prerollMs * sampleRate / 1000;
+        int crossfadeFrames = (int) (crossfadeMs * sampleRate / 1000);
+        int driftFrames = (int) (maxDriftMs * sampleRate / 1000);
+        // Past its end a segment needs the crossfade and room to be lined up, plus a margin for the resampler
+        long overrunFrames = (long) Math.ceil((crossfadeFrames + 2 * driftFrames) / ratio) + sampleRate / 10;
+        int count = (int) Math.ceilDiv(metadata.durationMs() * sampleRate / 1000, segmentFrames);
+        int window = window(segmentFrames + prerollFrames + overrunFrames, ratio, channels);
+
+        long start = System.nanoTime();
+        Path dir = tmpDir.isBlank() ? Files.createTempDirectory("segments-")
+                : Files.createTempDirectory(Files.createDirectories(Path.of(tmpDir)), "segments-");
+        Deque<Future<Path>> pending = new ArrayDeque<>();
+        try {
+            List<String> command = new ArrayList<>(Arrays.asList("ffmpeg", "-v", "error", "-y"));
+            command.addAll(RenderProgress.FFMPEG_ARGS);
+            command.addAll(Arrays.asList("-f", "f32le", "-ar", String.valueOf(sampleRate),
+                    "-ac", String.valueOf(channels), "-i", "-", "-f", "mp3", output.toString()));
+            try (SupervisedProcess encoder = processSupervisor.startConsumer(new ProcessBuilder(command))) {
+                processSupervisor.followProgress(encoder, progress);
+                try (OutputStream out = encoder.getOutputStream()) {
+                    Stitcher stitcher = new Stitcher(out, channels, crossfadeFrames, driftFrames);
+                    // Render a bounded window ahead of the stitcher, so at most that many parts sit on disk
+                    int submitted = 0;
+                    for (int i = 0; i < count; i++) {
+                        while (submitted < count && submitted < i + window) {
+                            int index = submitted++;
+                            long from = Math.max(0, index * segmentFrames - prerollFrames);
+                            // The last segment runs to the end of the file, whatever the probed duration said
+                            long to = index == count - 1 ? -1 : (index + 1) * segmentFrames + overrunFrames;
+                            pending.add(segments.submit(
+                                    () -> renderSegment(source, dir, index, from, to, sampleRate, channels, chain)));
+                        }
+                        Path part = await(pending.removeFirst());
+                        long first = Math.round(i * segmentFrames * ratio);
+                        long skip = first - Math.round(Math.max(0, i * segmentFrames - prerollFrames) * ratio);
+                        long length = i == count - 1 ? Long.MAX_VALUE
+                                : Math.round((i + 1) * segmentFrames * ratio) - first;
+                        stitcher.append(part, skip, length);
+                        Files.delete(part);
+                    }
+                    stitcher.finish();
+                }
+                int exitCode = encoder.waitFor();
+                if (exitCode != 0) {
+                    throw encoder.failure("FFmpeg encode failed with exit code: " + exitCode);
+                }
+            }
+            processingMetrics.recordStage(ProcessingMetrics.ENGINE_FFMPEG, ProcessingMetrics.JOIN, start);
+            logger.debug("Rendered {} in {} segments of {} s on {} threads, {} parts ahead, in {} ms", source,
+                    count, segmentSeconds, threads, window, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            pending.forEach(future -> future.cancel(true));
+            Files.deleteIfExists(output);
+            throw e;
+        } finally {
+            FileSystemUtils.deleteRecursively(dir);
+        }
+    }
+
+    /**
+     * Parts to keep in flight: enough to keep every thread busy while the
+     * stitcher catches up, but never more than the buffer budget holds.
+     */
+    private int window(long inputFramesPerPart, double ratio, int channels) {
+        long partBytes = Math.max(1, (long) Math.ceil(inputFramesPerPart * ratio) * channels * Float.BYTES);
+        long fits = maxBufferMb * 1024 * 1024 / partBytes;
+        return (int) Math.max(1, Math.min(2L * threads, fits));
+    }
+
+    private Path renderSegment(Path source, Path dir, int index, long fromFrame, long toFrame, int sampleRate,
+            int channels, String chain) throws Exception {
+        long start = System.nanoTime();
+        Path part = dir.resolve(index + ".f32");
+        List<String> command = new ArrayList<>(Arrays.asList("ffmpeg", "-v", "error", "-y",
+                "-ss", seconds(fromFrame, sampleRate)));
+        if (toFrame >= 0) {
+            command.addAll(Arrays.asList("-t", seconds(toFrame - fromFrame, sampleRate)));
+        }
+        command.addAll(Arrays.asList("-i", source.toString(), "-filter:a", chain,
+                "-ac", String.valueOf(channels), "-f", "f32le", part.toString()));
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        try (SupervisedProcess process = processSupervisor.start(pb)) {
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw process.failure("FFmpeg segment " + index + " failed with exit code: " + exitCode);
+            }
+        }
+        processingMetrics.recordStage(ProcessingMetrics.ENGINE_FFMPEG, ProcessingMetrics.SEGMENT, start);
+        return part;
+    }
+
+    private static String seconds(long frames, int sampleRate) {
+        return String.format(Locale.ROOT, "%.6f", frames / (double) sampleRate);
+    }
+
+    private static Path await(Future<Path> part) throws Exception {
+        try {
+            return part.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * Writes segments to the encoder in order. Each segment writes its own
+     * frames, and then keeps the frames that run past its end. The next
+     * segment fades in over them while they fade out. Before that, the next
+     * segment's start is moved by up to maxDriftFrames to where it best
+     * matches the tail.
+     */
+    static final class Stitcher {
+
+        private final OutputStream out;
+        private final int channels;
+        private final int frameBytes;
+        private final float[] tail;
+        private int tailFrames;
+        private final int maxDriftFrames;
+        private final ByteBuffer bytes = ByteBuffer.allocate(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        Stitcher(OutputStream out, int channels, int crossfadeFrames, int maxDriftFrames) {
+            this.out = out;
+            this.channels = channels;
+            this.frameBytes = channels * Float.BYTES;
+            this.tail = new float[crossfadeFrames * channels];
+            this.maxDriftFrames = maxDriftFrames;
+        }
+
+        /**
+         * Appends the part's frames from skip on: the first length of them, and
+         * the crossfade's worth after them as the next tail.
+         */
+        void append(Path part, long skip, long length) throws IOException {
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.READ)) {
+                long frames = channel.size() / frameBytes;
+                if (tailFrames > 0 && tailFrames * channels == tail.length && skip >= maxDriftFrames) {
+                    skip += drift(channel, skip, frames);
+                }
+                long available = Math.max(0, frames - skip);
+                channel.position(Math.min(frames, skip) * frameBytes);
+                ByteBuffer in = ByteBuffer.allocate(CHUNK_BYTES - CHUNK_BYTES % frameBytes)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                in.flip();
+
+                // Crossfade the previous tail with this part's first frames
+                int fade = (int) Math.min(tailFrames, available);
+                for (int frame = 0; frame < fade; frame++) {
+                    float weight = (frame + 0.5f) / tailFrames;
+                    for (int c = 0; c < channels; c++) {
+                        float previous = tail[frame * channels + c];
+                        put(previous + (next(channel, in) - previous) * weight);
+                    }
+                }
+                // A part that ended inside the crossfade leaves the rest of the tail as it was
+                for (int i = fade * channels; i < tailFrames * channels; i++) {
+                    put(tail[i]);
+                }
+
+                long own = Math.min(length, available);
+                for (long frame = fade; frame < own; frame++) {
+                    for (int c = 0; c < channels; c++) {
+                        put(next(channel, in));
+                    }
+                }
+
+                tailFrames = (int) Math.min(tail.length / channels, available - own);
+                for (int i = 0; i < tailFrames * channels; i++) {
+                    tail[i] = next(channel, in);
+                }
+            }
+        }
+
+        // Offset from skip at which the part's first frames differ least from the tail
+        private long drift(FileChannel channel, long skip, long frames) throws IOException {
+            int window = tailFrames + 2 * maxDriftFrames;
+            if (maxDriftFrames == 0 || skip - maxDriftFrames + window > frames) {
+                return 0;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(window * frameBytes).order(ByteOrder.LITTLE_ENDIAN);
+            channel.position((skip - maxDriftFrames) * frameBytes);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Read the whole window
+            }
+            buffer.flip();
+            float[] head = new float[window * channels];
+            buffer.asFloatBuffer().get(head);
+
+            double nominal = difference(head, maxDriftFrames);
+            double best = nominal;
+            int bestOffset = maxDriftFrames;
+            for (int offset = 0; offset <= 2 * maxDriftFrames; offset++) {
+                double candidate = difference(head, offset);
+                if (candidate < best) {
+                    best = candidate;
+                    bestOffset = offset;
+                }
+            }
+            // Periodic material matches at several offsets; only move when it is clearly better
+            if (best >= nominal * 0.5) {
+                return 0;
+            }
+            logger.debug("Moved a segment join by {} frame(s)", bestOffset - maxDriftFrames);
+            return bestOffset - maxDriftFrames;
+        }
+
+        private double difference(float[] head, int offset) {
+            double sum = 0;
+            int base = offset * channels;
+            for (int i = 0; i < tailFrames * channels; i++) {
+                double d = head[base + i] - tail[i];
+                sum += d * d;
+            }
+            return sum;
+        }
+
+        void finish() throws IOException {
+            for (int i = 0; i < tailFrames * channels; i++) {
+                put(tail[i]);
+            }
+            tailFrames = 0;
+            out.write(bytes.array(), 0, bytes.position());
+            bytes.clear();
+        }
+
+        private void put(float sample) throws IOException {
+            if (!bytes.hasRemaining()) {
+                out.write(bytes.array(), 0, bytes.position());
+                bytes.clear();
+            }
+            bytes.putFloat(sample);
+        }
+
+        private static float next(FileChannel channel, ByteBuffer in) throws IOException {
+            if (in.remaining() < Float.BYTES) {
+                in.compact();
+                while (in.position() < Float.BYTES) {
+                    if (channel.read(in) < 0) {
+                        throw new EOFException("Segment ended early");
+                    }
+                }
+                in.flip();
+            }
+            return in.getFloat();
+        }
+    }
+}
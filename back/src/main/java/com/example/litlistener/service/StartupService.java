@@ -1,67 +1,382 @@
 package com.example.litlistener.service;
 
-import com.example.litlistener.entity.AudioFile;
 import com.example.litlistener.repository.AudioFileRepository;
+import com.example.litlistener.repository.AudioFileSyncView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class StartupService {
 
+    private static final Logger logger = LoggerFactory.getLogger(StartupService.class);
+
     @Autowired
     private AudioFileRepository audioFileRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TranscriptionQueueService transcriptionQueueService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private AudioFileCacheService audioFileCacheService;
+
+    @Autowired
+    private FacetService facetService;
+
+    @Autowired
+    private TranscriptionSegmentService transcriptionSegmentService;
+
+    @Autowired
+    private WaveformService waveformService;
+
+    @Autowired
+    private RenditionCacheService renditionCacheService;
+
+    @Autowired
+    private AudioMetadataService audioMetadataService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${audio.cache.dir:/app/audio/renditions}")
+    private String cacheDir;
+
+    // 1 keeps the original behaviour of only looking at the top level of the folder
+    @Value("${audio.sync.max-depth:1}")
+    private int maxDepth;
+
+    @Value("${audio.sync.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * A regular file found on disk during a scan.
+     */
+    record ScannedFile(String name, String path, long size, long lastModified) {
+    }
+
     public void synchronizeAudioFolder(String audioFolderPath) {
-        File audioFolder = new File(audioFolderPath);
+        Path audioFolder = Paths.get(audioFolderPath).toAbsolutePath().normalize();
 
-        if (!audioFolder.exists() || !audioFolder.isDirectory()) {
-            System.err.println("Audio folder not found: " + audioFolderPath);
+        if (!Files.isDirectory(audioFolder)) {
+            logger.error("Audio folder not found: {}", audioFolderPath);
             return;
         }
 
-        File[] audioFiles = audioFolder.listFiles();
-        if (audioFiles == null) {
-            System.out.println("No files found in the audio folder.");
-            return;
-        }
+        long start = System.nanoTime();
+        Map<String, ScannedFile> onDisk = scanFolder(audioFolder);
+        long scanned = System.nanoTime();
+
+        Map<String, AudioFileSyncView> inDatabase = audioFileRepository.findAllProjectedBy().stream()
+                .collect(Collectors.toMap(AudioFileSyncView::getPath, row -> row, (a, b) -> a));
+        long loaded = System.nanoTime();
 
-        List<String> databasePaths = audioFileRepository.findAll().stream()
-                .map(AudioFile::getPath)
-                .collect(Collectors.toList());
+        Changes changes = diff(onDisk, inDatabase, Set.of());
+        long diffed = System.nanoTime();
 
-        for (File file : audioFiles) {
-            if (!databasePaths.contains(file.getAbsolutePath())) {
-                AudioFile newAudioFile = new AudioFile(file.getName(), file.getAbsolutePath());
-                audioFileRepository.save(newAudioFile);
-                System.out.println("New file added to the database: " + file.getName());
+        deleteRows(changes.removedIds(), changes.removedPaths());
+        long deleted = System.nanoTime();
 
-                queueFileForProcessing(file);
+        writeRows(changes.added(), changes.changed());
+        long written = System.nanoTime();
+
+        probeMetadata(changes);
+        long probed = System.nanoTime();
+
+        announceAdded(changes.added());
+        generateWaveforms(changes);
+
+        logger.info("Folder sync of {}: {} on disk, {} in database; {} added, {} changed, {} removed",
+                audioFolder, onDisk.size(), inDatabase.size(), changes.added().size(), changes.changed().size(),
+                changes.removedIds().size());
+        logger.info("Folder sync timings: scan {} ms, load {} ms, diff {} ms, delete {} ms, insert/update {} ms, "
+                + "probe {} ms", millis(start, scanned), millis(scanned, loaded), millis(loaded, diffed),
+                millis(diffed, deleted), millis(deleted, written), millis(written, probed));
+        recordPhase("scan", "scan", start, scanned);
+        recordPhase("scan", "load", scanned, loaded);
+        recordPhase("scan", "diff", loaded, diffed);
+        recordPhase("scan", "delete", diffed, deleted);
+        recordPhase("scan", "write", deleted, written);
+        recordPhase("scan", "probe", written, probed);
+    }
+
+    /**
+     * Applies create/modify/delete events for individual files, e.g. from the
+     * folder watcher, without rescanning the whole folder.
+     */
+    public void applyChanges(Collection<Path> paths) {
+        long start = System.nanoTime();
+        Map<String, ScannedFile> onDisk = new HashMap<>();
+        List<String> candidatePaths = new ArrayList<>();
+        for (Path path : paths) {
+            Path absolute = path.toAbsolutePath().normalize();
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(absolute, BasicFileAttributes.class);
+                if (attrs.isRegularFile()) {
+                    onDisk.put(absolute.toString(), new ScannedFile(absolute.getFileName().toString(),
+                            absolute.toString(), attrs.size(), attrs.lastModifiedTime().toMillis()));
+                }
+            } catch (NoSuchFileException e) {
+                // Deleted; the diff removes its row
+            } catch (IOException e) {
+                // Left out of this batch, so its row is neither removed nor updated; the rest still apply
+                logger.warn("Could not read {}, skipping it: {}", absolute, e.getMessage());
+                continue;
             }
+            candidatePaths.add(absolute.toString());
         }
 
-        List<String> folderPaths = List.of(audioFiles).stream()
-                .map(File::getAbsolutePath)
-                .collect(Collectors.toList());
+        Map<String, AudioFileSyncView> inDatabase = audioFileRepository.findByPathIn(candidatePaths).stream()
+                .collect(Collectors.toMap(AudioFileSyncView::getPath, row -> row, (a, b) -> a));
+
+        // Names held by rows outside this batch still block new files with the same name
+        Set<String> otherNames = audioFileRepository.findProjectedByNameIn(
+                onDisk.values().stream().map(ScannedFile::name).collect(Collectors.toSet())).stream()
+                .filter(row -> !inDatabase.containsKey(row.getPath()))
+                .map(AudioFileSyncView::getName)
+                .collect(Collectors.toSet());
+        long loaded = System.nanoTime();
+
+        Changes changes = diff(onDisk, inDatabase, otherNames);
+        long diffed = System.nanoTime();
+        deleteRows(changes.removedIds(), changes.removedPaths());
+        long deleted = System.nanoTime();
+        writeRows(changes.added(), changes.changed());
+        long written = System.nanoTime();
+        probeMetadata(changes);
+        long probed = System.nanoTime();
+        announceAdded(changes.added());
+        generateWaveforms(changes);
 
-        List<AudioFile> missingFiles = audioFileRepository.findAll().stream()
-                .filter(audioFile -> !folderPaths.contains(audioFile.getPath()))
-                .collect(Collectors.toList());
+        recordPhase("watch", "load", start, loaded);
+        recordPhase("watch", "diff", loaded, diffed);
+        recordPhase("watch", "delete", diffed, deleted);
+        recordPhase("watch", "write", deleted, written);
+        recordPhase("watch", "probe", written, probed);
+
+        logger.info("Applied {} file event(s): {} added, {} changed, {} removed", paths.size(),
+                changes.added().size(), changes.changed().size(), changes.removedIds().size());
+    }
+
+    // unprobed: unchanged files without metadata that are due for another probe
+    private record Changes(List<ScannedFile> added, List<ScannedFile> changed, List<Long> removedIds,
+            List<String> removedPaths, List<ScannedFile> unprobed) {
+    }
+
+    // Diff by path with hash lookups; size/mtime decide whether a known file changed
+    private Changes diff(Map<String, ScannedFile> onDisk, Map<String, AudioFileSyncView> inDatabase,
+            Set<String> otherNames) {
+        List<Long> removedIds = new ArrayList<>();
+        List<String> removedPaths = new ArrayList<>();
+        Set<String> remainingNames = new HashSet<>(otherNames);
+        for (AudioFileSyncView row : inDatabase.values()) {
+            if (onDisk.containsKey(row.getPath())) {
+                remainingNames.add(row.getName());
+            } else {
+                removedIds.add(row.getId());
+                removedPaths.add(row.getPath());
+                logger.debug("Removed missing file from the database: {}", row.getName());
+            }
+        }
 
-        if (!missingFiles.isEmpty()) {
-            System.out.println("Missing files detected in the folder:");
-            for (AudioFile missingFile : missingFiles) {
-                System.out.println("- " + missingFile.getName());
-                audioFileRepository.delete(missingFile);
-                System.out.println("Removed missing file from the database: " + missingFile.getName());
+        List<ScannedFile> added = new ArrayList<>();
+        List<ScannedFile> changed = new ArrayList<>();
+        List<ScannedFile> unprobed = new ArrayList<>();
+        for (ScannedFile file : onDisk.values()) {
+            AudioFileSyncView row = inDatabase.get(file.path());
+            if (row == null) {
+                // Names are unique in the table, so only the first file with a given name is added
+                if (remainingNames.add(file.name())) {
+                    added.add(file);
+                } else {
+                    logger.warn("Skipping {}: another file named {} is already registered", file.path(), file.name());
+                }
+            } else if (row.getFileSize() == null || row.getFileSize() != file.size()
+                    || row.getLastModified() == null || row.getLastModified() != file.lastModified()) {
+                changed.add(file);
+            } else if (row.getSampleRate() == null
+                    && audioMetadataService.isProbeDue(row.getProbeFailures(), row.getProbeFailedAt())) {
+                unprobed.add(file);
             }
         }
+        return new Changes(added, changed, removedIds, removedPaths, unprobed);
+    }
+
+    private void deleteRows(List<Long> removedIds, List<String> removedPaths) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < removedIds.size(); i += batchSize) {
+                List<Long> batch = removedIds.subList(i, Math.min(i + batchSize, removedIds.size()));
+                facetService.recordRemoval(batch);
+                transcriptionSegmentService.deleteForFiles(batch);
+                audioFileRepository.deleteAllByIdInBatch(batch);
+            }
+        });
+        audioFileCacheService.invalidateIds(removedIds);
+        transcriptionSegmentService.invalidate(removedIds);
+        searchIndexService.removeAll(removedIds);
+        List<Path> removed = removedPaths.stream().map(Paths::get).toList();
+        waveformService.delete(removed);
+        renditionCacheService.forgetSources(removed);
+    }
+
+    private void writeRows(List<ScannedFile> added, List<ScannedFile> changed) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO audio_files (name, path, file_size, last_modified) VALUES (?, ?, ?, ?)",
+                    added, batchSize, (ps, file) -> {
+                        ps.setString(1, file.name());
+                        ps.setString(2, file.path());
+                        ps.setLong(3, file.size());
+                        ps.setLong(4, file.lastModified());
+                    });
+            jdbcTemplate.batchUpdate(
+                    // New bytes, so the probed metadata and earlier probe failures no longer apply
+                    "UPDATE audio_files SET file_size = ?, last_modified = ?, duration_ms = NULL, sample_rate = NULL, "
+                            + "channels = NULL, bit_rate = NULL, probe_failures = NULL, probe_failed_at = NULL "
+                            + "WHERE path = ?",
+                    changed, batchSize, (ps, file) -> {
+                        ps.setLong(1, file.size());
+                        ps.setLong(2, file.lastModified());
+                        ps.setString(3, file.path());
+                    });
+        });
+        // These JDBC writes bypass JPA, so cached copies are dropped by name
+        audioFileCacheService.invalidateNames(Stream.concat(added.stream(), changed.stream())
+                .map(ScannedFile::name)
+                .toList());
+    }
+
+    // New and changed files are probed before the sync returns; older rows are backfilled off this thread
+    private void probeMetadata(Changes changes) {
+        Map<String, String> namesByPath = new HashMap<>();
+        Stream.concat(changes.added().stream(), changes.changed().stream())
+                .forEach(file -> namesByPath.put(file.path(), file.name()));
+        List<String> stored = audioMetadataService.probeAndStore(namesByPath.keySet());
+        audioFileCacheService.invalidateNames(stored.stream().map(namesByPath::get).toList());
+
+        audioMetadataService.probeInBackground(changes.unprobed().stream()
+                .collect(Collectors.toMap(ScannedFile::path, ScannedFile::name, (a, b) -> a)));
+    }
+
+    // Peaks are computed in the background so they are ready before anyone opens the file
+    private void generateWaveforms(Changes changes) {
+        waveformService.generateAsync(Stream.concat(changes.added().stream(), changes.changed().stream())
+                .map(file -> Paths.get(file.path()))
+                .toList());
+    }
+
+    private void announceAdded(List<ScannedFile> added) {
+        Map<String, String> pathsByName = new HashMap<>();
+        for (ScannedFile file : added) {
+            logger.debug("New file added to the database: {}", file.name());
+            pathsByName.put(file.name(), file.path());
+        }
+        transcriptionQueueService.enqueueAll(pathsByName);
+    }
+
+    /**
+     * Collects every regular file below the folder, keyed by absolute path. The
+     * top-level entries are walked in parallel, and the visitor reuses the
+     * attributes the walk already read, so each file is stat'ed once.
+     */
+    Map<String, ScannedFile> scanFolder(Path audioFolder) {
+        Path renditions = Paths.get(cacheDir).toAbsolutePath().normalize();
+
+        List<Path> topLevel;
+        try (Stream<Path> entries = Files.list(audioFolder)) {
+            topLevel = entries.toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return topLevel.parallelStream()
+                .flatMap(entry -> walk(entry, renditions).stream())
+                .collect(Collectors.toMap(ScannedFile::path, file -> file, (a, b) -> a));
+    }
+
+    private List<ScannedFile> walk(Path entry, Path renditions) {
+        List<ScannedFile> files = new ArrayList<>();
+        try {
+            Files.walkFileTree(entry, EnumSet.noneOf(FileVisitOption.class), Math.max(0, maxDepth - 1),
+                    new SimpleFileVisitor<>() {
+                        @Override
+                        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                            // Processed renditions are not recordings
+                            return dir.toAbsolutePath().normalize().startsWith(renditions)
+                                    ? FileVisitResult.SKIP_SUBTREE
+                                    : FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                            if (attrs.isRegularFile()) {
+                                Path absolute = file.toAbsolutePath().normalize();
+                                files.add(new ScannedFile(absolute.getFileName().toString(), absolute.toString(),
+                                        attrs.size(), attrs.lastModifiedTime().toMillis()));
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFileFailed(Path file, IOException e) {
+                            logger.warn("Could not read {}: {}", file, e.getMessage());
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+        } catch (IOException e) {
+            logger.warn("Could not scan {}: {}", entry, e.getMessage());
+        }
+        return files;
+    }
+
+    // trigger is "scan" for a full folder sync and "watch" for watcher events
+    private void recordPhase(String trigger, String phase, long from, long to) {
+        Timer.builder("audio.sync.phase")
+                .tag("trigger", trigger)
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(to - from, TimeUnit.NANOSECONDS);
     }
 
-    private void queueFileForProcessing(File file) {
-        System.out.println("Queued for Whisper processing: " + file.getName());
+    private static long millis(long from, long to) {
+        return (to - from) / 1_000_000;
     }
 }
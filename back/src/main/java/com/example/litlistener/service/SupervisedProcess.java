@@ -0,0 +1,185 @@
+package com.example.litlistener.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An external process started by ProcessSupervisor. Its stderr is drained
+ * into a ring of the last lines, which failure messages quote. Closing it
+ * kills the process and everything it spawned if it is still running.
+ */
+public class SupervisedProcess implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SupervisedProcess.class);
+
+    // A line longer than this is cut off; FFmpeg's progress lines are far shorter
+    private static final int MAX_LINE_BYTES = 1000;
+
+    private final String name;
+    private final Process process;
+    private final Duration timeout;
+    private final long spawnStartNanos;
+    private final int maxLines;
+    private final Deque<String> lines = new ArrayDeque<>();
+    private final CountDownLatch drained = new CountDownLatch(1);
+    private volatile boolean timedOut;
+    private volatile boolean cancelled;
+
+    SupervisedProcess(String name, Process process, Duration timeout, long spawnStartNanos, int maxLines) {
+        this.name = name;
+        this.process = process;
+        this.timeout = timeout;
+        this.spawnStartNanos = spawnStartNanos;
+        this.maxLines = Math.max(1, maxLines);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public InputStream getInputStream() {
+        return process.getInputStream();
+    }
+
+    public OutputStream getOutputStream() {
+        return process.getOutputStream();
+    }
+
+    /**
+     * When the process was about to be spawned, after any wait for a permit.
+     */
+    public long getSpawnStartNanos() {
+        return spawnStartNanos;
+    }
+
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /**
+     * Waits for the process to exit and returns its exit code. A process
+     * killed by its timeout or by cancel() throws instead, and an interrupted
+     * wait kills it before rethrowing.
+     */
+    public int waitFor() throws IOException, InterruptedException {
+        int exitCode;
+        try {
+            exitCode = process.waitFor();
+        } catch (InterruptedException e) {
+            destroyTree();
+            throw e;
+        }
+        // A child that inherited stderr can keep it open after the process itself exits
+        drained.await(1, TimeUnit.SECONDS);
+        if (timedOut) {
+            throw failure(name + " timed out after " + timeout.toSeconds() + " s");
+        }
+        if (cancelled) {
+            throw failure(name + " was cancelled");
+        }
+        return exitCode;
+    }
+
+    /**
+     * An exception with the message followed by the last lines the process wrote.
+     */
+    public IOException failure(String message) {
+        String output = lastOutput();
+        return new IOException(output.isEmpty() ? message : message + ": " + output);
+    }
+
+    public String lastOutput() {
+        synchronized (lines) {
+            return String.join("\n", lines);
+        }
+    }
+
+    /**
+     * Kills the process and its descendants.
+     */
+    public void cancel() {
+        cancelled = true;
+        destroyTree();
+    }
+
+    @Override
+    public void close() {
+        if (process.isAlive()) {
+            destroyTree();
+        }
+    }
+
+    void timeOut() {
+        if (!process.isAlive()) {
+            return;
+        }
+        timedOut = true;
+        logger.warn("Killing {} (pid {}) after {} s", name, process.pid(), timeout.toSeconds());
+        destroyTree();
+    }
+
+    // Descendants are listed first; once the parent dies they are re-parented and no longer show up
+    private void destroyTree() {
+        List<ProcessHandle> descendants = process.descendants().toList();
+        process.destroyForcibly();
+        descendants.forEach(ProcessHandle::destroyForcibly);
+    }
+
+    void drain(InputStream in) {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (in) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    // FFmpeg ends its progress lines with \r
+                    if (b == '\n' || b == '\r') {
+                        addLine(line);
+                    } else if (line.size() < MAX_LINE_BYTES) {
+                        line.write(b);
+                    }
+                }
+            }
+            addLine(line);
+        } catch (IOException e) {
+            // The stream closes under us when the process is killed
+            logger.debug("Stopped reading output of {}: {}", name, e.getMessage());
+        } finally {
+            drained.countDown();
+        }
+    }
+
+    private void addLine(ByteArrayOutputStream line) {
+        if (line.size() == 0) {
+            return;
+        }
+        String text = line.toString(StandardCharsets.UTF_8).strip();
+        line.reset();
+        if (text.isEmpty()) {
+            return;
+        }
+        synchronized (lines) {
+            if (lines.size() == maxLines) {
+                lines.removeFirst();
+            }
+            lines.addLast(text);
+        }
+    }
+
+    void noOutputToDrain() {
+        drained.countDown();
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.entity.AudioFile;
+import com.example.litlistener.entity.Transcription;
+import com.example.litlistener.entity.TranscriptionJob;
+import com.example.litlistener.entity.TranscriptionJob.Status;
+import com.example.litlistener.repository.AudioFileRepository;
+import com.example.litlistener.repository.TranscriptionJobRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Durable Whisper transcription pipeline. Pending files are rows in the
+ * transcription_jobs table; a dispatcher claims due jobs only while a worker
+ * permit is free, so at most audio.whisper.concurrency Whisper processes run
+ * at once no matter how long the queue grows. Each job is supervised on its own
+ * virtual thread, and failures are retried with exponential backoff.
+ */
+@Service
+public class TranscriptionQueueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranscriptionQueueService.class);
+
+    @Autowired
+    private TranscriptionJobRepository transcriptionJobRepository;
+
+    @Autowired
+    private AudioFileRepository audioFileRepository;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private AudioFileCacheService audioFileCacheService;
+
+    @Autowired
+    private TranscriptionSegmentService transcriptionSegmentService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProcessSupervisor processSupervisor;
+
+    @Value("${audio.whisper.enabled:false}")
+    private boolean enabled;
+
+    // {input} and {outputDir} are replaced per job; a stub script can stand in for Whisper
+    @Value("${audio.whisper.command:whisper {input} --model base --output_format srt --output_dir {outputDir}}")
+    private String command;
+
+    @Value("${audio.whisper.concurrency:1}")
+    private int concurrency;
+
+    @Value("${audio.whisper.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${audio.whisper.backoff-seconds:30}")
+    private long backoffSeconds;
+
+    @Value("${audio.whisper.timeout-minutes:60}")
+    private long timeoutMinutes;
+
+    @Value("${audio.whisper.poll-ms:2000}")
+    private long pollMs;
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private Semaphore permits;
+    private ExecutorService workers;
+    private ScheduledExecutorService dispatcher;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        permits = new Semaphore(concurrency);
+        Gauge.builder("whisper.queue.depth", queueDepth, AtomicLong::get)
+                .description("Transcription jobs waiting to run")
+                .register(meterRegistry);
+        Gauge.builder("whisper.workers.active", this, service -> concurrency - service.permits.availablePermits())
+                .register(meterRegistry);
+
+        if (!enabled) {
+            logger.info("Whisper transcription is disabled; jobs stay queued");
+            return;
+        }
+
+        int requeued = transcriptionJobRepository.requeueInterrupted(Status.PENDING, Status.RUNNING);
+        if (requeued > 0) {
+            logger.info("Requeued {} transcription job(s) interrupted by a restart", requeued);
+        }
+
+        workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("whisper-", 0).factory());
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "whisper-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::dispatch, pollMs, pollMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues files that have no pending or running job yet.
+     */
+    public void enqueueAll(Map<String, String> pathsByName) {
+        if (pathsByName.isEmpty()) {
+            return;
+        }
+        Set<String> active = new HashSet<>(transcriptionJobRepository.findFileNamesWithStatus(
+                pathsByName.keySet(), List.of(Status.PENDING, Status.RUNNING)));
+
+        List<TranscriptionJob> jobs = new ArrayList<>();
+        pathsByName.forEach((name, path) -> {
+            if (!active.contains(name)) {
+                jobs.add(new TranscriptionJob(name, path));
+            }
+        });
+        transcriptionJobRepository.saveAll(jobs);
+        queueDepth.addAndGet(jobs.size());
+        logger.info("Queued {} file(s) for Whisper transcription", jobs.size());
+    }
+
+    private void dispatch() {
+        try {
+            queueDepth.set(transcriptionJobRepository.countByStatus(Status.PENDING));
+
+            int free = permits.availablePermits();
+            if (free == 0) {
+                return;
+            }
+
+            List<TranscriptionJob> due = transcriptionJobRepository
+                    .findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(Status.PENDING, Instant.now(),
+                            PageRequest.of(0, free));
+            for (TranscriptionJob job : due) {
+                if (!permits.tryAcquire()) {
+                    return;
+                }
+                if (transcriptionJobRepository.claim(job.getId(), Instant.now(), Status.PENDING, Status.RUNNING) == 0) {
+                    permits.release();
+                    continue;
+                }
+                Duration waited = Duration.between(job.getNextAttemptAt(), Instant.now());
+                meterRegistry.timer("whisper.queue.wait").record(waited.isNegative() ? Duration.ZERO : waited);
+                workers.execute(() -> run(job.getId()));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Transcription dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void run(Long jobId) {
+        long start = System.nanoTime();
+        String result = "failure";
+        TranscriptionJob job = null;
+        try {
+            job = transcriptionJobRepository.findById(jobId).orElse(null);
+            if (job == null) {
+                return;
+            }
+            Path input = Paths.get(job.getPath());
+            if (!audioFileRepository.existsByName(job.getFileName()) || !Files.exists(input)) {
+                // Deleted or renamed since it was queued; a rename gets a job of its own
+                finish(job, "Skipped: the file no longer exists");
+                result = "skipped";
+                logger.info("Skipped transcribing {}, it no longer exists", job.getFileName());
+                return;
+            }
+            WhisperOutput output = runWhisper(input);
+
+            String fileName = job.getFileName();
+            AudioFile saved = transactionTemplate.execute(status -> {
+                AudioFile audioFile = audioFileRepository.findByName(fileName);
+                if (audioFile == null) {
+                    return null;
+                }
+                List<Transcription> segments = output.srt() == null ? List.of()
+                        : TranscriptionSegmentService.parseSrt(audioFile.getId(), Transcription.SOURCE_WHISPER,
+                                output.srt());
+                audioFile.setWhisper(output.srt() == null ? output.text()
+                        : String.join("\n", segments.stream().map(Transcription::getText).toList()));
+                transcriptionSegmentService.replaceSegments(audioFile.getId(), Transcription.SOURCE_WHISPER, segments);
+                return audioFileRepository.save(audioFile);
+            });
+            if (saved != null) {
+                audioFileCacheService.invalidate(saved);
+                transcriptionSegmentService.invalidate(List.of(saved.getId()));
+                searchIndexService.index(saved);
+            } else {
+                logger.info("{} was removed before its transcription finished", job.getFileName());
+            }
+
+            finish(job, null);
+            result = "success";
+            logger.info("Transcribed {} in {} ms", job.getFileName(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            if (job != null) {
+                retryOrFail(job, e);
+            } else {
+                // Left RUNNING; the next start requeues it
+                logger.error("Could not load transcription job {}: {}", jobId, e.getMessage(), e);
+            }
+        } finally {
+            permits.release();
+            Timer.builder("whisper.transcription")
+                    .tag("result", result)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void finish(TranscriptionJob job, String note) {
+        job.setStatus(Status.DONE);
+        job.setFinishedAt(Instant.now());
+        job.setLastError(note);
+        transcriptionJobRepository.save(job);
+    }
+
+    private void retryOrFail(TranscriptionJob job, Exception e) {
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        job.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+        if (job.getAttempts() >= maxAttempts) {
+            job.setStatus(Status.FAILED);
+            job.setFinishedAt(Instant.now());
+            logger.warn("Giving up on transcribing {} after {} attempt(s): {}", job.getFileName(), job.getAttempts(),
+                    error);
+        } else {
+            // 30s, 60s, 120s, ... with the default settings
+            long delay = backoffSeconds << Math.min(job.getAttempts() - 1, 16);
+            job.setStatus(Status.PENDING);
+            job.setNextAttemptAt(Instant.now().plusSeconds(delay));
+            logger.warn("Transcribing {} failed (attempt {}), retrying in {} s: {}", job.getFileName(),
+                    job.getAttempts(), delay, error);
+        }
+        transcriptionJobRepository.save(job);
+    }
+
+    /**
+     * Whisper's plain text, plus its timed cues when it wrote an .srt file.
+     */
+    private record WhisperOutput(String text, String srt) {
+    }
+
+    private WhisperOutput runWhisper(Path input) throws Exception {
+        Path outputDir = Files.createTempDirectory("whisper-");
+        try {
+            List<String> args = new ArrayList<>();
+            for (String part : command.trim().split("\\s+")) {
+                args.add(part.replace("{input}", input.toString()).replace("{outputDir}", outputDir.toString()));
+            }
+
+            // Output goes to a file, so a full pipe can never stall the process
+            Path log = outputDir.resolve("whisper.log");
+            ProcessBuilder pb = new ProcessBuilder(args);
+            pb.redirectErrorStream(true);
+            pb.redirectOutput(log.toFile());
+            try (SupervisedProcess process = processSupervisor.start(pb, Duration.ofMinutes(timeoutMinutes))) {
+                int exitCode = process.waitFor();
+                if (exitCode != 0) {
+                    throw new RuntimeException("Whisper failed with exit code " + exitCode);
+                }
+            }
+
+            // Whisper writes <name>.srt or <name>.txt into the output folder; a stub may print to stdout instead
+            String stem = input.getFileName().toString().replaceFirst("\\.[^.]+$", "");
+            Path srt = outputDir.resolve(stem + ".srt");
+            if (Files.exists(srt)) {
+                return new WhisperOutput(null, Files.readString(srt, StandardCharsets.UTF_8));
+            }
+            Path transcript = outputDir.resolve(stem + ".txt");
+            return new WhisperOutput(
+                    Files.readString(Files.exists(transcript) ? transcript : log, StandardCharsets.UTF_8).trim(), null);
+        } finally {
+            deleteRecursively(outputDir);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            logger.debug("Could not clean up {}: {}", dir, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.entity.Transcription;
+import com.example.litlistener.repository.TranscriptionRepository;
+import com.example.litlistener.request.TranscriptionSegmentRequest;
+import com.example.litlistener.response.TranscriptionSegmentResponse;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Stores transcripts as timed segments and answers "what is said between A
+ * and B". The first window request for a file is answered from the
+ * (audioFileId, startMs) index and starts loading the whole file into a
+ * {@link SegmentIndex} in the background; later requests for that file, such
+ * as a player following playback, are answered from memory.
+ *
+ * The replace/delete methods must run inside the caller's transaction; call
+ * {@link #invalidate} once it has committed.
+ */
+@Service
+public class TranscriptionSegmentService {
+
+    // [[hh:]mm:]ss[.fff] or SRT's hh:mm:ss,fff
+    private static final Pattern TIMESTAMP = Pattern.compile(
+            "^(?:(?:(\\d+):)?(\\d{1,2}):)?(\\d+)(?:[.,](\\d{1,3}))?$");
+    private static final Pattern SRT_TIMING = Pattern.compile("^\\s*(\\S+)\\s*-->\\s*(\\S+)");
+
+    @Autowired
+    private TranscriptionRepository transcriptionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Bounds the in-memory indexes by their total number of segments
+    @Value("${audio.segments.cache-max-segments:500000}")
+    private long cacheMaxSegments;
+
+    private AsyncCache<Long, SegmentIndex> indexes;
+
+    @PostConstruct
+    void init() {
+        indexes = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxSegments)
+                .weigher((Long id, SegmentIndex index) -> Math.max(1, index.size()))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, indexes, "transcription.segments");
+    }
+
+    public List<TranscriptionSegmentResponse> findOverlapping(Long audioFileId, long fromMs, long toMs) {
+        CompletableFuture<SegmentIndex> cached = indexes.getIfPresent(audioFileId);
+        List<Transcription> segments;
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+            segments = cached.join().overlapping(fromMs, toMs);
+        } else {
+            segments = transcriptionRepository.findOverlapping(audioFileId, fromMs, toMs);
+            if (cached == null) {
+                indexes.get(audioFileId, (id, executor) -> CompletableFuture.supplyAsync(
+                        () -> new SegmentIndex(transcriptionRepository.findByAudioFileIdOrderByStartMs(id)), executor));
+            }
+        }
+        return segments.stream()
+                .map(segment -> new TranscriptionSegmentResponse(segment.getStartMs(), segment.getEndMs(),
+                        segment.getText(), segment.getSource()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Replaces all of a file's segments from one source.
+     */
+    public void replaceSegments(Long audioFileId, String source, List<Transcription> segments) {
+        transcriptionRepository.deleteByAudioFileIdAndSource(audioFileId, source);
+        transcriptionRepository.saveAll(segments);
+    }
+
+    public void deleteForFiles(Collection<Long> audioFileIds) {
+        transcriptionRepository.deleteByAudioFileIdIn(audioFileIds);
+    }
+
+    public void invalidate(Collection<Long> audioFileIds) {
+        indexes.synchronous().invalidateAll(audioFileIds);
+    }
+
+    public static List<Transcription> toSegments(Long audioFileId, List<TranscriptionSegmentRequest> requests) {
+        List<Transcription> segments = new ArrayList<>();
+        for (TranscriptionSegmentRequest request : requests) {
+            if (request.getStartMs() < 0 || request.getEndMs() <= request.getStartMs()) {
+                throw new IllegalArgumentException("Invalid segment bounds: " + request.getStartMs() + "-"
+                        + request.getEndMs());
+            }
+            segments.add(new Transcription(audioFileId, Transcription.SOURCE_MANUAL, request.getStartMs(),
+                    request.getEndMs(), request.getText() == null ? "" : request.getText()));
+        }
+        return segments;
+    }
+
+    /**
+     * Parses the free-form from/to strings the UI has always sent ("83",
+     * "1:23.5", "01:01:23,500"); returns -1 for anything else.
+     */
+    public static long parseTimestamp(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Matcher matcher = TIMESTAMP.matcher(value.trim());
+        if (!matcher.matches()) {
+            return -1;
+        }
+        long hours = matcher.group(1) == null ? 0 : Long.parseLong(matcher.group(1));
+        long minutes = matcher.group(2) == null ? 0 : Long.parseLong(matcher.group(2));
+        long seconds = Long.parseLong(matcher.group(3));
+        String fraction = matcher.group(4) == null ? "0" : (matcher.group(4) + "00").substring(0, 3);
+        return ((hours * 60 + minutes) * 60 + seconds) * 1000 + Long.parseLong(fraction);
+    }
+
+    /**
+     * Reads the cues of an SRT file as segments of the given source.
+     */
+    public static List<Transcription> parseSrt(Long audioFileId, String source, String srt) {
+        List<Transcription> segments = new ArrayList<>();
+        for (String block : srt.replace("\r\n", "\n").split("\n\\s*\n")) {
+            String[] lines = block.strip().split("\n");
+            for (int i = 0; i < lines.length; i++) {
+                Matcher timing = SRT_TIMING.matcher(lines[i]);
+                if (!timing.find()) {
+                    continue;
+                }
+                long start = parseTimestamp(timing.group(1));
+                long end = parseTimestamp(timing.group(2));
+                if (start >= 0 && end > start) {
+                    String text = String.join(" ", List.of(lines).subList(i + 1, lines.length)).strip();
+                    segments.add(new Transcription(audioFileId, source, start, end, text));
+                }
+                break;
+            }
+        }
+        return segments;
+    }
+}
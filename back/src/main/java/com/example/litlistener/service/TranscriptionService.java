@@ -1,39 +1,116 @@
 package com.example.litlistener.service;
 
 import com.example.litlistener.entity.AudioFile;
+import com.example.litlistener.entity.Transcription;
 import com.example.litlistener.request.TranscriptionRequest;
 import com.example.litlistener.response.TranscriptionResponse;
+import com.example.litlistener.response.TranscriptionSegmentResponse;
+import com.example.litlistener.response.TranscriptionSummaryResponse;
 import com.example.litlistener.repository.AudioFileRepository;
 
+import io.micrometer.core.annotation.Timed;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
 
+// Every public method is timed, tagged with its name (needs management.observations.annotations.enabled)
 @Service
+@Timed(value = "transcription.service", histogram = true)
 public class TranscriptionService {
 
     @Autowired
     private AudioFileRepository audioFileRepository;
 
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private AudioFileCacheService audioFileCacheService;
+
+    @Autowired
+    private FacetService facetService;
+
+    @Autowired
+    private TranscriptionSegmentService transcriptionSegmentService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public void saveTranscription(TranscriptionRequest request) {
-        AudioFile audioFile = audioFileRepository.findByName(request.getFileName());
-        if (audioFile == null) {
-            throw new IllegalArgumentException("Audio file not found: " + request.getFileName());
+        // The facet counts commit together with the row
+        AudioFile saved = transactionTemplate.execute(status -> {
+            // Read and lock the row itself rather than the shared cached copy: the old tag and field
+            // must not change under us until the facet deltas commit
+            AudioFile audioFile = audioFileRepository.findByNameForUpdate(request.getFileName());
+            if (audioFile == null) {
+                throw new IllegalArgumentException("Audio file not found: " + request.getFileName());
+            }
+
+            facetService.recordChange(audioFile.getTag(), audioFile.getField(), request.getTag(), request.getField());
+            audioFile.setFromField(request.getFrom());
+            audioFile.setToField(request.getTo());
+            audioFile.setTranscript(request.getTranscription());
+            audioFile.setTag(request.getTag());
+            audioFile.setField(request.getField());
+            transcriptionSegmentService.replaceSegments(audioFile.getId(), Transcription.SOURCE_MANUAL,
+                    manualSegments(audioFile.getId(), request));
+            return audioFileRepository.save(audioFile);
+        });
+        audioFileCacheService.invalidate(saved);
+        transcriptionSegmentService.invalidate(List.of(saved.getId()));
+        searchIndexService.index(saved);
+    }
+
+    // Explicit segments win; otherwise a transcript with parseable from/to becomes one segment
+    private static List<Transcription> manualSegments(Long audioFileId, TranscriptionRequest request) {
+        if (request.getSegments() != null) {
+            return TranscriptionSegmentService.toSegments(audioFileId, request.getSegments());
         }
+        long from = TranscriptionSegmentService.parseTimestamp(request.getFrom());
+        long to = TranscriptionSegmentService.parseTimestamp(request.getTo());
+        if (request.getTranscription() == null || request.getTranscription().isBlank() || from < 0 || to <= from) {
+            return List.of();
+        }
+        return List.of(new Transcription(audioFileId, Transcription.SOURCE_MANUAL, from, to,
+                request.getTranscription()));
+    }
 
-        audioFile.setFromField(request.getFrom());
-        audioFile.setToField(request.getTo());
-        audioFile.setTranscript(request.getTranscription());
-        audioFile.setTag(request.getTag());
-        audioFile.setField(request.getField());
-        audioFileRepository.save(audioFile);
+    /**
+     * Segments of a file overlapping [fromMs, toMs), or null if there is no
+     * such file.
+     */
+    public List<TranscriptionSegmentResponse> getSegments(String fileName, long fromMs, long toMs) {
+        AudioFile audioFile = audioFileCacheService.findByName(fileName);
+        if (audioFile == null) {
+            return null;
+        }
+        return transcriptionSegmentService.findOverlapping(audioFile.getId(), fromMs, toMs);
     }
 
     public TranscriptionResponse getTranscription(String fileName) {
-        AudioFile audioFile = audioFileRepository.findByName(fileName);
+        AudioFile audioFile = audioFileCacheService.findByName(fileName);
         if (audioFile == null) {
             return null;
         }
+        return toResponse(audioFile);
+    }
+
+    // Look up many files with one IN query instead of one query per file
+    public List<TranscriptionSummaryResponse> getSummariesByName(Collection<String> fileNames) {
+        return audioFileRepository.findSummariesByNameIn(fileNames);
+    }
+
+    public List<TranscriptionSummaryResponse> getSummariesById(Collection<Long> ids) {
+        return audioFileRepository.findSummariesByIdIn(ids);
+    }
+
+    private TranscriptionResponse toResponse(AudioFile audioFile) {
         return new TranscriptionResponse(
+                audioFile.getName(),
                 audioFile.getFromField(),
                 audioFile.getToField(),
                 audioFile.getTranscript(),
@@ -0,0 +1,392 @@
+package com.example.litlistener.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Precomputed waveform peaks, so the browser can draw a recording without
+ * downloading and decoding it. Each audio file gets one .peaks file holding
+ * 8-bit min/max pairs at several zoom levels; slices of a level are read
+ * straight out of a memory-mapped copy of that file.
+ *
+ * File layout (little-endian):
+ * <pre>
+ * magic "LLWF", int version, int sampleRate, int levelCount,
+ * long sampleCount, long sourceSize, long sourceLastModified,
+ * levelCount x (int samplesPerPeak, int peakCount, long dataOffset),
+ * then per level peakCount x (byte min, byte max)
+ * </pre>
+ */
+@Service
+public class WaveformService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaveformService.class);
+
+    private static final int MAGIC = 0x46574c4c; // "LLWF" read as a little-endian int
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+    private static final int LEVEL_BYTES = 16;
+    private static final int BASE_SAMPLES_PER_PEAK = 256;
+    // 256, 1024, 4096, 16384 and 65536 samples per peak
+    private static final int LEVELS = 5;
+    private static final int LEVEL_FACTOR = 4;
+
+    @Autowired
+    private AudioMetadataService audioMetadataService;
+
+    @Autowired
+    private ProcessSupervisor processSupervisor;
+
+    // Lives below the rendition cache, which folder sync and the watcher already skip
+    @Value("${audio.waveform.dir:/app/audio/renditions/waveforms}")
+    private String waveformDir;
+
+    @Value("${audio.waveform.threads:1}")
+    private int threads;
+
+    private ExecutorService executor;
+    private final Map<Path, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<Path, Waveform> mapped = Caffeine.newBuilder().maximumSize(256).build();
+
+    /**
+     * One zoom level sliced out of a peaks file.
+     */
+    public record Slice(int sampleRate, long sampleCount, int samplesPerPeak, long startPeak, byte[] peaks) {
+    }
+
+    private record Level(int samplesPerPeak, int peakCount, long dataOffset) {
+    }
+
+    private record Waveform(long sourceSize, long sourceLastModified, int sampleRate, long sampleCount,
+            Level[] levels, MappedByteBuffer buffer) {
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(Paths.get(waveformDir));
+        executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "waveform");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Generates peaks for the files in the background, e.g. right after ingest
+     * or processing. Files whose peaks are current are skipped.
+     */
+    public void generateAsync(Collection<Path> sources) {
+        for (Path source : sources) {
+            generate(source, executor).exceptionally(e -> {
+                logger.warn("Could not generate waveform for {}: {}", source, e.getMessage());
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Deletes the peaks of files that are gone: evicted renditions and
+     * recordings removed from the folder.
+     */
+    public void delete(Collection<Path> sources) {
+        for (Path source : sources) {
+            Path key = source.toAbsolutePath().normalize();
+            mapped.invalidate(key);
+            Path peaksFile = peaksPathFor(key);
+            try {
+                Files.deleteIfExists(peaksFile);
+            } catch (IOException e) {
+                logger.warn("Could not delete waveform {}: {}", peaksFile, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the peaks of one level for [startMs, endMs), picking the coarsest
+     * level that still has at least minPeaks peaks in that range. Missing or
+     * stale peaks are generated first.
+     */
+    public Slice read(Path source, long startMs, long endMs, int minPeaks) throws Exception {
+        Waveform waveform = load(source.toAbsolutePath().normalize());
+
+        long endSample = endMs < 0 ? waveform.sampleCount()
+                : Math.min(waveform.sampleCount(), endMs * waveform.sampleRate() / 1000);
+        long startSample = Math.min(endSample, startMs * waveform.sampleRate() / 1000);
+
+        Level level = waveform.levels()[0];
+        for (Level candidate : waveform.levels()) {
+            if ((endSample - startSample) / candidate.samplesPerPeak() >= minPeaks) {
+                level = candidate;
+            }
+        }
+
+        long startPeak = Math.min(level.peakCount(), startSample / level.samplesPerPeak());
+        long endPeak = Math.min(level.peakCount(),
+                (endSample + level.samplesPerPeak() - 1) / level.samplesPerPeak());
+        byte[] peaks = new byte[(int) (endPeak - startPeak) * 2];
+        // Absolute get on a shared mapping: no position state, so concurrent readers are fine
+        waveform.buffer().get((int) (level.dataOffset() + startPeak * 2), peaks);
+        return new Slice(waveform.sampleRate(), waveform.sampleCount(), level.samplesPerPeak(), startPeak, peaks);
+    }
+
+    private Waveform load(Path source) throws Exception {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        Waveform waveform = mapped.getIfPresent(source);
+        if (isCurrent(waveform, attributes.size(), lastModified)) {
+            return waveform;
+        }
+        Path peaksFile = peaksPathFor(source);
+        waveform = Files.exists(peaksFile) ? map(peaksFile) : null;
+        if (!isCurrent(waveform, attributes.size(), lastModified)) {
+            // Generated on the request thread rather than behind queued background work
+            waveform = map(generate(source, Runnable::run).get());
+        }
+        mapped.put(source, waveform);
+        return waveform;
+    }
+
+    private static boolean isCurrent(Waveform waveform, long size, long lastModified) {
+        return waveform != null && waveform.sourceSize() == size && waveform.sourceLastModified() == lastModified;
+    }
+
+    // Only one generation per file runs at a time; concurrent callers share its result
+    private CompletableFuture<Path> generate(Path source, Executor runner) {
+        Path key = source.toAbsolutePath().normalize();
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        runner.execute(() -> {
+            try {
+                created.complete(generateNow(key));
+            } catch (Throwable e) {
+                created.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key);
+            }
+        });
+        return created;
+    }
+
+    private Path generateNow(Path source) throws Exception {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        Path target = peaksPathFor(source);
+        if (isCurrent(target, attributes.size(), lastModified)) {
+            return target;
+        }
+
+        long start = System.nanoTime();
+        int sampleRate = audioMetadataService.metadataOf(source).sampleRate();
+
+        // Stream mono 16-bit PCM through the finest level; nothing else is held in memory
+        List<String> command = Arrays.asList("ffmpeg", "-v", "error", "-i", source.toString(),
+                "-ac", "1", "-f", "s16le", "-acodec", "pcm_s16le", "-");
+
+        ByteBuffer base = ByteBuffer.allocate(1 << 16);
+        long sampleCount = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        byte[] chunk = new byte[1 << 16];
+        int carried = 0;
+        try (SupervisedProcess process = processSupervisor.start(new ProcessBuilder(command));
+                InputStream in = process.getInputStream()) {
+            int read;
+            while ((read = in.read(chunk, carried, chunk.length - carried)) != -1) {
+                int available = carried + read;
+                int end = available & ~1;
+                for (int i = 0; i < end; i += 2) {
+                    int sample = (short) ((chunk[i + 1] << 8) | (chunk[i] & 0xff));
+                    min = Math.min(min, sample);
+                    max = Math.max(max, sample);
+                    if (++sampleCount % BASE_SAMPLES_PER_PEAK == 0) {
+                        base = appendPeak(base, min, max);
+                        min = Integer.MAX_VALUE;
+                        max = Integer.MIN_VALUE;
+                    }
+                }
+                // A sample split across two reads is finished by the next one
+                carried = available - end;
+                if (carried > 0) {
+                    chunk[0] = chunk[end];
+                }
+            }
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw process.failure("FFmpeg decode failed with exit code: " + exitCode);
+            }
+        }
+        if (sampleCount % BASE_SAMPLES_PER_PEAK != 0) {
+            base = appendPeak(base, min, max);
+        }
+
+        // Coarser levels merge groups of LEVEL_FACTOR peaks of the level below
+        byte[][] levels = new byte[LEVELS][];
+        levels[0] = Arrays.copyOf(base.array(), base.position());
+        for (int i = 1; i < LEVELS; i++) {
+            levels[i] = downsample(levels[i - 1]);
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        write(temp, sampleRate, sampleCount, attributes.size(), lastModified, levels);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        mapped.invalidate(source);
+        logger.info("Generated waveform for {} ({} samples) in {} ms", source, sampleCount,
+                (System.nanoTime() - start) / 1_000_000);
+        return target;
+    }
+
+    private static ByteBuffer appendPeak(ByteBuffer peaks, int min, int max) {
+        if (peaks.remaining() < 2) {
+            ByteBuffer grown = ByteBuffer.allocate(peaks.capacity() * 2);
+            peaks.flip();
+            grown.put(peaks);
+            peaks = grown;
+        }
+        // 16-bit to 8-bit keeps the top byte, which is all a waveform can show anyway
+        peaks.put((byte) (min >> 8));
+        peaks.put((byte) (max >> 8));
+        return peaks;
+    }
+
+    private static byte[] downsample(byte[] peaks) {
+        int count = peaks.length / 2;
+        byte[] result = new byte[(count + LEVEL_FACTOR - 1) / LEVEL_FACTOR * 2];
+        for (int i = 0; i < count; i += LEVEL_FACTOR) {
+            byte min = Byte.MAX_VALUE;
+            byte max = Byte.MIN_VALUE;
+            for (int j = i; j < Math.min(count, i + LEVEL_FACTOR); j++) {
+                min = (byte) Math.min(min, peaks[j * 2]);
+                max = (byte) Math.max(max, peaks[j * 2 + 1]);
+            }
+            result[i / LEVEL_FACTOR * 2] = min;
+            result[i / LEVEL_FACTOR * 2 + 1] = max;
+        }
+        return result;
+    }
+
+    private static void write(Path path, int sampleRate, long sampleCount, long sourceSize, long sourceLastModified,
+            byte[][] levels) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + LEVEL_BYTES * levels.length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(sampleRate).putInt(levels.length)
+                .putLong(sampleCount).putLong(sourceSize).putLong(sourceLastModified);
+        long offset = header.capacity();
+        int samplesPerPeak = BASE_SAMPLES_PER_PEAK;
+        for (byte[] level : levels) {
+            header.putInt(samplesPerPeak).putInt(level.length / 2).putLong(offset);
+            offset += level.length;
+            samplesPerPeak *= LEVEL_FACTOR;
+        }
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            for (byte[] level : levels) {
+                ByteBuffer data = ByteBuffer.wrap(level);
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+        }
+    }
+
+    // Reads just the header; mapping the whole file only to compare two fields is not worth it
+    private static boolean isCurrent(Path peaksFile, long sourceSize, long sourceLastModified) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(peaksFile, StandardOpenOption.READ)) {
+            int read = 0;
+            while (header.hasRemaining() && read != -1) {
+                read = channel.read(header);
+            }
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        return !header.hasRemaining() && header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+                && header.getLong(24) == sourceSize && header.getLong(32) == sourceLastModified;
+    }
+
+    private static Waveform map(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return null;
+        }
+        int levelCount = buffer.getInt(12);
+        Level[] levels = new Level[levelCount];
+        for (int i = 0; i < levelCount; i++) {
+            int at = HEADER_BYTES + i * LEVEL_BYTES;
+            levels[i] = new Level(buffer.getInt(at), buffer.getInt(at + 4), buffer.getLong(at + 8));
+        }
+        return new Waveform(buffer.getLong(24), buffer.getLong(32), buffer.getInt(8), buffer.getLong(16), levels,
+                buffer);
+    }
+
+    private Path peaksPathFor(Path source) {
+        String absolute = source.toAbsolutePath().normalize().toString();
+        String name = source.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        return Paths.get(waveformDir, stem + "_" + sha256(absolute).substring(0, 16) + ".peaks");
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.litlistener.dsp;
+
+import jdk.incubator.vector.FloatVector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks each kernel against a plain scalar reference written out here, over
+ * lengths around multiples of the preferred vector width so the vector loop
+ * and its scalar tail are both exercised.
+ */
+class DspKernelsTest {
+
+    private static final int LANES = FloatVector.SPECIES_PREFERRED.length();
+    private static final int SAMPLE_RATE = 8000;
+    private static final int[] LENGTHS = {0, 1, LANES - 1, LANES, LANES + 1, 3 * LANES + 1, 4 * LANES - 1, 1003,
+            4096, 4099};
+
+    @Test
+    void gainMatchesTheScalarReference() {
+        for (int length : LENGTHS) {
+            for (float gain : new float[] {0f, 0.5f, 1f, 1.7f, 4f}) {
+                float[] source = noise(length, 1);
+                float[] target = new float[length];
+
+                DspKernels.gain(source, target, length, gain);
+
+                float[] expected = new float[length];
+                for (int i = 0; i < length; i++) {
+                    expected[i] = Math.max(-1f, Math.min(1f, source[i] * gain));
+                }
+                assertSamples(expected, target, length, 0, "gain " + gain + ", length " + length);
+            }
+        }
+    }
+
+    @Test
+    void gainWorksInPlaceAndLeavesSamplesPastTheLengthAlone() {
+        for (int length : LENGTHS) {
+            float[] samples = noise(length + 5, 2);
+            float[] original = samples.clone();
+
+            DspKernels.gain(samples, samples, length, 1.5f);
+
+            for (int i = 0; i < length; i++) {
+                assertEquals(Math.max(-1f, Math.min(1f, original[i] * 1.5f)), samples[i], "sample " + i);
+            }
+            for (int i = length; i < samples.length; i++) {
+                assertEquals(original[i], samples[i], "untouched sample " + i);
+            }
+        }
+    }
+
+    @Test
+    void resampleMatchesTheScalarReference() {
+        for (int channels : new int[] {1, 2}) {
+            for (double factor : new double[] {1.0, 1.25, 0.8, 1 / 1.3, 2.0}) {
+                for (int length : LENGTHS) {
+                    int usable = length - length % channels;
+                    float[] source = noise(usable, 3);
+                    float[] target = new float[DspKernels.outputLength(usable, channels, factor)];
+
+                    int written = usable == 0 ? 0 : DspKernels.resample(source, usable, channels, factor, target);
+
+                    float[] expected = referenceResample(source, usable, channels, factor);
+                    String label = channels + " ch, factor " + factor + ", length " + usable;
+                    assertEquals(expected.length, written, label);
+                    assertEquals(target.length, written, "outputLength for " + label);
+                    assertSamples(expected, target, written, 1e-6, label);
+                }
+            }
+        }
+    }
+
+    @Test
+    void resampleByOneCopiesTheSignal() {
+        float[] source = noise(2 * 1001, 4);
+        float[] target = new float[source.length];
+
+        DspKernels.resample(source, source.length, 2, 1.0, target);
+
+        assertSamples(source, target, source.length, 0, "identity");
+    }
+
+    @Test
+    void bandpassMatchesTheScalarReference() {
+        for (int channels : new int[] {1, 2}) {
+            for (int length : LENGTHS) {
+                int usable = length - length % channels;
+                float[] samples = noise(usable, 5);
+                float[] expected = referenceBandpass(samples, usable, channels, 1000, 200);
+
+                DspKernels.bandpass(samples, usable, channels, SAMPLE_RATE, 1000, 200);
+
+                assertSamples(expected, samples, usable, 1e-6, channels + " ch, length " + usable);
+            }
+        }
+    }
+
+    @Test
+    void bandpassPassesTheCentreAndCutsFarFrequencies() {
+        int length = SAMPLE_RATE;
+        float[] centre = tone(1000, length);
+        float[] far = tone(3000, length);
+
+        DspKernels.bandpass(centre, length, 1, SAMPLE_RATE, 1000, 200);
+        DspKernels.bandpass(far, length, 1, SAMPLE_RATE, 1000, 200);
+
+        // Measured after the filter has settled
+        double centreRms = rms(centre, length / 2, length);
+        double farRms = rms(far, length / 2, length);
+        assertEquals(0.5 / Math.sqrt(2), centreRms, 0.01, "0 dB at the centre frequency");
+        assertTrue(farRms < centreRms / 10, "far frequency attenuated, rms " + farRms);
+    }
+
+    @Test
+    void compressMatchesTheScalarReference() {
+        for (int channels : new int[] {1, 2}) {
+            for (double ratio : new double[] {1, 2, 8}) {
+                for (int length : LENGTHS) {
+                    int usable = length - length % channels;
+                    float[] samples = noise(usable, 6);
+                    float[] expected = referenceCompress(samples, usable, channels, -12, ratio);
+
+                    DspKernels.compress(samples, usable, channels, SAMPLE_RATE, -12, ratio);
+
+                    assertSamples(expected, samples, usable, 1e-6,
+                            channels + " ch, ratio " + ratio + ", length " + usable);
+                }
+            }
+        }
+    }
+
+    @Test
+    void compressLeavesQuietSignalsAloneAndTurnsLoudOnesDown() {
+        int length = SAMPLE_RATE;
+        float[] quiet = tone(440, length);
+        scale(quiet, 0.1f);
+        float[] quietOriginal = quiet.clone();
+        float[] loud = tone(440, length);
+        scale(loud, 1.8f);
+
+        DspKernels.compress(quiet, length, 1, SAMPLE_RATE, -12, 4);
+        DspKernels.compress(loud, length, 1, SAMPLE_RATE, -12, 4);
+
+        assertSamples(quietOriginal, quiet, length, 0, "below the threshold");
+        assertTrue(rms(loud, length / 2, length) < 0.9 * 0.9 / Math.sqrt(2), "loud signal turned down");
+    }
+
+    // Linear interpolation between neighbouring frames, in doubles
+    private static float[] referenceResample(float[] source, int length, int channels, double factor) {
+        int frames = length / channels;
+        int outFrames = (int) (frames / factor);
+        float[] out = new float[outFrames * channels];
+        for (int frame = 0; frame < outFrames; frame++) {
+            double position = frame * factor;
+            int before = (int) Math.floor(position);
+            int after = Math.min(before + 1, frames - 1);
+            double weight = position - before;
+            for (int c = 0; c < channels; c++) {
+                double a = source[before * channels + c];
+                double b = source[after * channels + c];
+                out[frame * channels + c] = (float) ((1 - weight) * a + weight * b);
+            }
+        }
+        return out;
+    }
+
+    // RBJ cookbook band-pass, constant 0 dB peak gain, direct form I per channel
+    private static float[] referenceBandpass(float[] input, int length, int channels, double frequency,
+            double bandwidth) {
+        double w0 = 2 * Math.PI * frequency / SAMPLE_RATE;
+        double alpha = Math.sin(w0) * bandwidth / (2 * frequency);
+        double[] b = {alpha, 0, -alpha};
+        double[] a = {1 + alpha, -2 * Math.cos(w0), 1 - alpha};
+        float[] out = input.clone();
+        for (int c = 0; c < channels; c++) {
+            double[] x = new double[3];
+            double[] y = new double[3];
+            for (int i = c; i < length; i += channels) {
+                x[2] = x[1];
+                x[1] = x[0];
+                x[0] = input[i];
+                y[2] = y[1];
+                y[1] = y[0];
+                y[0] = (b[0] * x[0] + b[1] * x[1] + b[2] * x[2] - a[1] * y[1] - a[2] * y[2]) / a[0];
+                out[i] = (float) y[0];
+            }
+        }
+        return out;
+    }
+
+    // Linked peak envelope with acompressor's 20 ms attack and 250 ms release, gain computed in dB
+    private static float[] referenceCompress(float[] input, int length, int channels, double thresholdDb,
+            double ratio) {
+        double attack = Math.exp(-1.0 / (0.020 * SAMPLE_RATE));
+        double release = Math.exp(-1.0 / (0.250 * SAMPLE_RATE));
+        double envelope = 0;
+        float[] out = input.clone();
+        for (int frame = 0; frame < length / channels; frame++) {
+            double level = 0;
+            for (int c = 0; c < channels; c++) {
+                level = Math.max(level, Math.abs(input[frame * channels + c]));
+            }
+            double coefficient = level > envelope ? attack : release;
+            envelope = coefficient * envelope + (1 - coefficient) * level;
+            double envelopeDb = 20 * Math.log10(envelope);
+            if (envelopeDb > thresholdDb) {
+                double reductionDb = (thresholdDb - envelopeDb) * (1 - 1 / ratio);
+                float gain = (float) Math.pow(10, reductionDb / 20);
+                for (int c = 0; c < channels; c++) {
+                    out[frame * channels + c] = input[frame * channels + c] * gain;
+                }
+            }
+        }
+        return out;
+    }
+
+    // Uniform in [-1.5, 1.5], so gain has values to clamp
+    private static float[] noise(int length, long seed) {
+        Random random = new Random(seed);
+        float[] samples = new float[length];
+        for (int i = 0; i < length; i++) {
+            samples[i] = (random.nextFloat() * 2 - 1) * 1.5f;
+        }
+        return samples;
+    }
+
+    private static float[] tone(double frequency, int length) {
+        float[] samples = new float[length];
+        for (int i = 0; i < length; i++) {
+            samples[i] = (float) (0.5 * Math.sin(2 * Math.PI * frequency * i / SAMPLE_RATE));
+        }
+        return samples;
+    }
+
+    private static void scale(float[] samples, float factor) {
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] *= factor;
+        }
+    }
+
+    private static double rms(float[] samples, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += samples[i] * samples[i];
+        }
+        return Math.sqrt(sum / (to - from));
+    }
+
+    private static void assertSamples(float[] expected, float[] actual, int length, double tolerance,
+            String label) {
+        for (int i = 0; i < length; i++) {
+            if (Math.abs(expected[i] - actual[i]) > tolerance) {
+                assertEquals(expected[i], actual[i], tolerance, label + ", sample " + i);
+            }
+        }
+    }
+}
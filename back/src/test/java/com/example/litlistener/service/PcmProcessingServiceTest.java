@@ -0,0 +1,103 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.dsp.PcmBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PcmProcessingServiceTest {
+
+    private static final Path SOURCE = Path.of("test.mp3");
+
+    @Test
+    void readsSamplesSplitAcrossReads() throws IOException {
+        float[] expected = signal(100_003);
+
+        PcmBuffer pcm = PcmProcessingService.readSamples(new TrickleStream(bytesOf(expected), 7), expected.length,
+                48000, 1, SOURCE);
+
+        assertSamples(expected, pcm);
+    }
+
+    @Test
+    void growsPastTheExpectedLength() throws IOException {
+        float[] expected = signal(300_001);
+
+        PcmBuffer pcm = PcmProcessingService.readSamples(new TrickleStream(bytesOf(expected), 10_001), 1000,
+                48000, 1, SOURCE);
+
+        assertSamples(expected, pcm);
+    }
+
+    @Test
+    void dropsATrailingPartialSample() throws IOException {
+        float[] expected = signal(10);
+        byte[] bytes = bytesOf(expected);
+        byte[] truncated = new byte[bytes.length + 3];
+        System.arraycopy(bytes, 0, truncated, 0, bytes.length);
+
+        PcmBuffer pcm = PcmProcessingService.readSamples(new TrickleStream(truncated, 5), 10, 48000, 1, SOURCE);
+
+        assertSamples(expected, pcm);
+    }
+
+    private static float[] signal(int length) {
+        float[] samples = new float[length];
+        for (int i = 0; i < length; i++) {
+            samples[i] = (float) Math.sin(i * 0.01);
+        }
+        return samples;
+    }
+
+    private static byte[] bytesOf(float[] samples) {
+        ByteBuffer buffer = ByteBuffer.allocate(samples.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (float sample : samples) {
+            buffer.putFloat(sample);
+        }
+        return buffer.array();
+    }
+
+    private static void assertSamples(float[] expected, PcmBuffer pcm) {
+        assertEquals(expected.length, pcm.length());
+        for (int i = 0; i < expected.length; i++) {
+            if (expected[i] != pcm.samples()[i]) {
+                assertEquals(expected[i], pcm.samples()[i], "sample " + i);
+            }
+        }
+    }
+
+    // Hands out at most step bytes per read, like a pipe that FFmpeg fills slowly
+    private static final class TrickleStream extends InputStream {
+        private final byte[] bytes;
+        private final int step;
+        private int position;
+
+        private TrickleStream(byte[] bytes, int step) {
+            this.bytes = bytes;
+            this.step = step;
+        }
+
+        @Override
+        public int read() {
+            return position < bytes.length ? bytes[position++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (position >= bytes.length) {
+                return -1;
+            }
+            int count = Math.min(Math.min(length, step), bytes.length - position);
+            System.arraycopy(bytes, position, target, offset, count);
+            position += count;
+            return count;
+        }
+    }
+}
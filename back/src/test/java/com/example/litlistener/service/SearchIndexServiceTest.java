@@ -0,0 +1,143 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.entity.AudioFile;
+import com.example.litlistener.response.SearchResultResponse;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchIndexServiceTest {
+
+    private final SearchIndexService index = new SearchIndexService();
+
+    private void add(long id, String tag, String transcript) {
+        AudioFile audioFile = new AudioFile("file" + id + ".mp3", "/app/audio/file" + id + ".mp3");
+        audioFile.setId(id);
+        audioFile.setTag(tag);
+        audioFile.setTranscript(transcript);
+        index.index(audioFile);
+    }
+
+    private List<String> names(String query) {
+        return index.search(query, 10).stream().map(SearchResultResponse::getName).toList();
+    }
+
+    @Test
+    void ranksMoreFrequentTermsFirst() {
+        add(1, null, "radio check then a long stretch of wind and static");
+        add(2, null, "radio radio radio check");
+        add(3, null, "wind and static only");
+
+        assertEquals(List.of("file2.mp3", "file1.mp3"), names("radio"));
+    }
+
+    @Test
+    void ranksTagMatchesAboveTranscriptMatches() {
+        add(1, null, "bridge report from the north bank");
+        add(2, "Bridge", "report from the north bank");
+
+        assertEquals(List.of("file2.mp3", "file1.mp3"), names("bridge"));
+    }
+
+    @Test
+    void ranksRareTermsAboveCommonOnes() {
+        add(1, null, "tower contact");
+        add(2, null, "tower dawn");
+        add(3, null, "tower dusk");
+
+        List<SearchResultResponse> results = index.search("tower contact", 10);
+        assertEquals(List.of("file1.mp3"), results.stream().map(SearchResultResponse::getName).toList());
+
+        // "contact" occurs in one file, "tower" in all three
+        float both = results.get(0).getScore();
+        float towerOnly = index.search("tower", 10).get(0).getScore();
+        assertTrue(both > 2 * towerOnly, both + " vs " + towerOnly);
+    }
+
+    @Test
+    void requiresEveryClauseToMatch() {
+        add(1, null, "radio tower");
+        add(2, null, "radio bridge");
+
+        assertEquals(List.of("file2.mp3"), names("radio bridge"));
+        assertEquals(List.of(), names("radio river"));
+    }
+
+    @Test
+    void matchesPrefixes() {
+        add(1, null, "reporting from the tower");
+        add(2, null, "the report was late");
+        add(3, null, "repeat after me");
+        add(4, null, "nothing to see");
+
+        assertEquals(List.of("file1.mp3", "file2.mp3"), names("report*").stream().sorted().toList());
+        assertEquals(3, names("rep*").size());
+        assertEquals(List.of(), names("xyz*"));
+    }
+
+    @Test
+    void matchesPhrasesOnlyWhenTheTermsAreAdjacent() {
+        add(1, null, "the radio tower is down");
+        add(2, null, "the tower radio is down");
+        add(3, null, "radio and then the tower");
+
+        assertEquals(List.of("file1.mp3"), names("\"radio tower\""));
+        assertEquals(List.of("file2.mp3"), names("\"tower radio\""));
+    }
+
+    @Test
+    void treatsHyphenatedWordsAsPhrases() {
+        add(1, null, "check the north-east sector");
+        add(2, null, "north of the river, east of the bridge");
+
+        assertEquals(List.of("file1.mp3"), names("north-east"));
+    }
+
+    @Test
+    void replacesTheTextOfAReindexedFile() {
+        add(1, null, "old words");
+        add(1, "Radio", "new words");
+
+        assertEquals(List.of(), names("old"));
+        assertEquals(List.of("file1.mp3"), names("new"));
+        assertEquals(List.of("file1.mp3"), names("radio"));
+        assertEquals(List.of("file1.mp3"), names("words"));
+    }
+
+    @Test
+    void forgetsRemovedFiles() {
+        add(1, null, "radio tower");
+        add(2, null, "radio bridge");
+
+        index.removeAll(List.of(1L));
+
+        assertEquals(List.of("file2.mp3"), names("radio"));
+        assertEquals(List.of(), names("tower"));
+    }
+
+    @Test
+    void returnsNothingForBlankQueries() {
+        add(1, null, "radio");
+
+        assertEquals(List.of(), names(""));
+        assertEquals(List.of(), names("  \"\" * "));
+        assertEquals(List.of(), names(null));
+    }
+
+    @Test
+    void returnsAtMostTheLimitBestFirst() {
+        for (long id = 1; id <= 30; id++) {
+            add(id, null, "radio " + "static ".repeat((int) id));
+        }
+
+        List<SearchResultResponse> results = index.search("radio", 5);
+        assertEquals(5, results.size());
+        // Shorter documents score higher for the same term frequency
+        assertEquals(List.of("file1.mp3", "file2.mp3", "file3.mp3", "file4.mp3", "file5.mp3"),
+                results.stream().map(SearchResultResponse::getName).toList());
+    }
+}
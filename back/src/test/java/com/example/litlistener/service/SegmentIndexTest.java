@@ -0,0 +1,57 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.entity.Transcription;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SegmentIndexTest {
+
+    private static Transcription segment(long startMs, long endMs, String text) {
+        return new Transcription(1L, Transcription.SOURCE_MANUAL, startMs, endMs, text);
+    }
+
+    private static List<String> texts(List<Transcription> segments) {
+        return segments.stream().map(Transcription::getText).toList();
+    }
+
+    @Test
+    void leavesOutASegmentEndingWhereTheWindowStarts() {
+        SegmentIndex index = new SegmentIndex(List.of(segment(0, 1000, "a"), segment(1000, 2000, "b")));
+
+        assertEquals(List.of("b"), texts(index.overlapping(1000, 1500)));
+    }
+
+    @Test
+    void leavesOutASegmentStartingWhereTheWindowEnds() {
+        SegmentIndex index = new SegmentIndex(List.of(segment(0, 1000, "a"), segment(1000, 2000, "b")));
+
+        assertEquals(List.of("a"), texts(index.overlapping(500, 1000)));
+    }
+
+    @Test
+    void findsALongSegmentSpanningShortOnes() {
+        // The long one starts first, so only the running maximum of end times can reach it
+        SegmentIndex index = new SegmentIndex(List.of(
+                segment(1000, 2000, "short1"),
+                segment(0, 60_000, "long"),
+                segment(2000, 3000, "short2"),
+                segment(10_000, 11_000, "short3")));
+
+        assertEquals(List.of("long"), texts(index.overlapping(5000, 6000)));
+        assertEquals(List.of("long", "short3"), texts(index.overlapping(10_500, 10_600)));
+        assertEquals(List.of("long", "short1", "short2"), texts(index.overlapping(1500, 2500)));
+    }
+
+    @Test
+    void findsNothingOutsideTheSegments() {
+        SegmentIndex index = new SegmentIndex(List.of(segment(1000, 2000, "a")));
+
+        assertEquals(List.of(), index.overlapping(0, 1000));
+        assertEquals(List.of(), index.overlapping(2000, 3000));
+        assertEquals(List.of(), new SegmentIndex(List.of()).overlapping(0, Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.litlistener.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Joins parts cut from one known signal the way SegmentedRenderService.render
+ * cuts them, and checks the stitched stream is that signal again.
+ */
+class SegmentStitcherTest {
+
+    private static final int SAMPLE_RATE = 8000;
+    private static final int CHANNELS = 2;
+    private static final double TOLERANCE = 1e-5;
+
+    @TempDir
+    Path dir;
+
+    // Not periodic over the drift window, so the join search has one clear best offset
+    private static float sample(long frame, int channel) {
+        double t = (double) frame / SAMPLE_RATE;
+        double value = 0.3 * Math.sin(2 * Math.PI * 220 * t) + 0.2 * Math.sin(2 * Math.PI * 331.7 * t + 1)
+                + 0.1 * Math.sin(2 * Math.PI * 1234.5 * t + 2);
+        return (float) (channel == 0 ? value : 0.5 * value);
+    }
+
+    @Test
+    void joinsPartsExactly() throws IOException {
+        assertStitched(1.0, 0);
+    }
+
+    @Test
+    void joinsPartsOfRaisedPitch() throws IOException {
+        assertStitched(1 / 1.25, 0);
+    }
+
+    @Test
+    void joinsPartsOfLoweredPitch() throws IOException {
+        assertStitched(1 / 0.8, 0);
+    }
+
+    @Test
+    void realignsPartsThatDrifted() throws IOException {
+        assertStitched(1.0, 7);
+    }
+
+    @Test
+    void realignsPitchedPartsThatDrifted() throws IOException {
+        assertStitched(1 / 1.25, 5);
+    }
+
+    @Test
+    void keepsTheTailWhenTheLastPartEndsInsideTheCrossfade() throws IOException {
+        int crossfade = 400;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SegmentedRenderService.Stitcher stitcher = new SegmentedRenderService.Stitcher(out, CHANNELS, crossfade, 0);
+
+        // The first part owns 1000 frames and carries 400 more as the tail; the second has only 150 of them
+        stitcher.append(part("first", 0, 1400), 0, 1000);
+        stitcher.append(part("second", 1000, 1150), 0, Long.MAX_VALUE);
+        stitcher.finish();
+
+        assertSignal(out.toByteArray(), 1400);
+    }
+
+    @Test
+    void writesAPartShorterThanTheCrossfadeWhole() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SegmentedRenderService.Stitcher stitcher = new SegmentedRenderService.Stitcher(out, CHANNELS, 400, 0);
+
+        stitcher.append(part("only", 0, 120), 0, Long.MAX_VALUE);
+        stitcher.finish();
+
+        assertSignal(out.toByteArray(), 120);
+    }
+
+    /**
+     * Cuts the signal like render does for a ratio of output to input frames:
+     * each part starts a preroll early and runs past its end. Parts after the
+     * first are shifted by up to maxDrift frames, alternating in sign.
+     */
+    private void assertStitched(double ratio, int maxDrift) throws IOException {
+        long segmentFrames = 2 * SAMPLE_RATE;
+        long prerollFrames = SAMPLE_RATE / 4;
+        int crossfadeFrames = SAMPLE_RATE / 20;
+        int driftFrames = maxDrift > 0 ? maxDrift + 3 : 0;
+        long overrunFrames = (long) Math.ceil((crossfadeFrames + 2 * driftFrames) / ratio) + SAMPLE_RATE / 10;
+        long inputFrames = 9 * SAMPLE_RATE + 1234;
+        long outputFrames = Math.round(inputFrames * ratio);
+        int count = (int) Math.ceilDiv(inputFrames, segmentFrames);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SegmentedRenderService.Stitcher stitcher =
+                new SegmentedRenderService.Stitcher(out, CHANNELS, crossfadeFrames, driftFrames);
+        for (int i = 0; i < count; i++) {
+            long fromInput = Math.max(0, i * segmentFrames - prerollFrames);
+            long from = Math.round(fromInput * ratio);
+            long to = i == count - 1 ? outputFrames
+                    : Math.min(outputFrames, Math.round(((i + 1) * segmentFrames + overrunFrames) * ratio));
+            int drift = i == 0 ? 0 : (i % 2 == 0 ? maxDrift : -maxDrift);
+
+            long first = Math.round(i * segmentFrames * ratio);
+            long skip = first - from;
+            long length = i == count - 1 ? Long.MAX_VALUE : Math.round((i + 1) * segmentFrames * ratio) - first;
+            // The last part still ends where the recording does
+            long end = i == count - 1 ? outputFrames : to + drift;
+            stitcher.append(part("part" + i, from + drift, end), skip, length);
+        }
+        stitcher.finish();
+
+        assertSignal(out.toByteArray(), outputFrames);
+    }
+
+    // Frames [from, to) of the signal as interleaved little-endian f32le, like FFmpeg writes them
+    private Path part(String name, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from) * CHANNELS * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (long frame = from; frame < to; frame++) {
+            for (int c = 0; c < CHANNELS; c++) {
+                buffer.putFloat(sample(frame, c));
+            }
+        }
+        return Files.write(dir.resolve(name + ".f32"), buffer.array());
+    }
+
+    private static void assertSignal(byte[] bytes, long frames) {
+        assertEquals(frames * CHANNELS * Float.BYTES, bytes.length, "stitched length in bytes");
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        for (long frame = 0; frame < frames; frame++) {
+            for (int c = 0; c < CHANNELS; c++) {
+                float expected = sample(frame, c);
+                float actual = buffer.getFloat();
+                if (Math.abs(expected - actual) > TOLERANCE) {
+                    assertEquals(expected, actual, TOLERANCE, "frame " + frame + ", channel " + c);
+                }
+            }
+        }
+    }
+}
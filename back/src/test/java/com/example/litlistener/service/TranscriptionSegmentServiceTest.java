@@ -0,0 +1,63 @@
+package com.example.litlistener.service;
+
+import com.example.litlistener.entity.Transcription;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TranscriptionSegmentServiceTest {
+
+    @Test
+    void parsesTheTimestampFormatsTheUiSends() {
+        assertEquals(83_000, TranscriptionSegmentService.parseTimestamp("83"));
+        assertEquals(83_500, TranscriptionSegmentService.parseTimestamp("1:23.5"));
+        assertEquals(3_683_500, TranscriptionSegmentService.parseTimestamp("01:01:23,500"));
+        assertEquals(83_050, TranscriptionSegmentService.parseTimestamp(" 1:23.05 "));
+    }
+
+    @Test
+    void rejectsOtherTimestamps() {
+        assertEquals(-1, TranscriptionSegmentService.parseTimestamp(null));
+        assertEquals(-1, TranscriptionSegmentService.parseTimestamp(""));
+        assertEquals(-1, TranscriptionSegmentService.parseTimestamp("1:2:3:4"));
+        assertEquals(-1, TranscriptionSegmentService.parseTimestamp("1:23.5000"));
+        assertEquals(-1, TranscriptionSegmentService.parseTimestamp("-5"));
+        assertEquals(-1, TranscriptionSegmentService.parseTimestamp("abc"));
+    }
+
+    @Test
+    void readsCrlfSrt() {
+        String srt = "1\r\n00:00:01,000 --> 00:00:02,500\r\nHello\r\nthere\r\n\r\n"
+                + "2\r\n00:00:03,000 --> 00:00:04,000\r\nAgain\r\n";
+
+        List<Transcription> segments = TranscriptionSegmentService.parseSrt(7L, "whisper", srt);
+
+        assertEquals(2, segments.size());
+        assertSegment(segments.get(0), 1000, 2500, "Hello there");
+        assertSegment(segments.get(1), 3000, 4000, "Again");
+        assertEquals(7L, segments.get(0).getAudioFileId());
+    }
+
+    @Test
+    void keepsEmptyCuesAndSkipsBrokenOnes() {
+        String srt = "1\n00:00:01,000 --> 00:00:02,000\n\n"
+                + "2\n00:00:05,000 --> 00:00:04,000\nBackwards\n\n"
+                + "3\nnot a timing line\n\n"
+                + "4\n00:00:06,000 --> 00:00:07,000 X1:0 X2:10\nPositioned\n";
+
+        List<Transcription> segments = TranscriptionSegmentService.parseSrt(7L, "whisper", srt);
+
+        assertEquals(2, segments.size());
+        assertSegment(segments.get(0), 1000, 2000, "");
+        assertSegment(segments.get(1), 6000, 7000, "Positioned");
+    }
+
+    private static void assertSegment(Transcription segment, long startMs, long endMs, String text) {
+        assertEquals(startMs, segment.getStartMs());
+        assertEquals(endMs, segment.getEndMs());
+        assertEquals(text, segment.getText());
+    }
+}
@@ -1,11 +1,78 @@
 const API_BASE_URL = "http://localhost:8080/api/audio"; // Backend API URL
 
-// Fetch all audio files from the backend
-export async function fetchAudioFiles() {
+// Fetch all audio files from the backend, one slim page at a time
+export async function fetchAudioFiles(filters = {}) {
   try {
-    const response = await fetch(`${API_BASE_URL}`);
+    const files = [];
+    let cursor = null;
+    do {
+      const query = new URLSearchParams({ ...filters, size: 500 });
+      if (cursor) {
+        query.set("cursor", cursor);
+      }
+      const response = await fetch(`${API_BASE_URL}/list?${query}`);
+      if (!response.ok) {
+        throw new Error(`Error fetching audio files: ${response.statusText}`);
+      }
+      const page = await response.json();
+      files.push(...page.items);
+      cursor = page.nextCursor;
+    } while (cursor);
+    return files;
+  } catch (error) {
+    console.error(error);
+    return [];
+  }
+}
+
+// File counts per tag and per field, without downloading the files
+export async function fetchFacets() {
+  try {
+    const response = await fetch(`${API_BASE_URL}/facets`);
+    if (!response.ok) {
+      throw new Error(`Error fetching facets: ${response.statusText}`);
+    }
+    return await response.json();
+  } catch (error) {
+    console.error(error);
+    return { tags: [], fields: [] };
+  }
+}
+
+// Names per batch request; the server rejects more than audio.transcriptions.batch-max-files
+const TRANSCRIPTION_BATCH_SIZE = 1000;
+
+// Fetch the FROM/TO and category of many files, one request per batch of names
+export async function fetchTranscriptions(fileNames) {
+  const transcriptions = [];
+  try {
+    for (let i = 0; i < fileNames.length; i += TRANSCRIPTION_BATCH_SIZE) {
+      const response = await fetch("http://localhost:8080/api/transcriptions/batch", {
+        method: "POST",
+        headers: { "Content-Type": "application/json" },
+        body: JSON.stringify({ fileNames: fileNames.slice(i, i + TRANSCRIPTION_BATCH_SIZE) }),
+      });
+      if (!response.ok) {
+        throw new Error(`Error fetching transcriptions: ${response.statusText}`);
+      }
+      transcriptions.push(...(await response.json()));
+    }
+    return transcriptions;
+  } catch (error) {
+    console.error(error);
+    return [];
+  }
+}
+
+// Transcript segments overlapping [fromMs, toMs) of one file
+export async function fetchTranscriptSegments(fileName, fromMs, toMs) {
+  try {
+    const params = new URLSearchParams({ fromMs, toMs });
+    const response = await fetch(
+      `http://localhost:8080/api/transcriptions/${encodeURIComponent(fileName)}/segments?${params}`,
+    );
     if (!response.ok) {
-      throw new Error(`Error fetching audio files: ${response.statusText}`);
+      throw new Error(`Error fetching segments: ${response.statusText}`);
     }
     return await response.json();
   } catch (error) {
@@ -14,6 +81,46 @@ export async function fetchAudioFiles() {
   }
 }
 
+// Precomputed waveform peaks for a stream URL, scaled to -1..1 for WaveSurfer
+export async function fetchWaveform(streamUrl, minPeaks = 2000) {
+  const url = streamUrl.replace("/api/audio/stream/", "/api/audio/waveform/");
+  if (url === streamUrl) {
+    return null;
+  }
+  try {
+    const response = await fetch(`${url}?minPeaks=${minPeaks}`);
+    if (!response.ok) {
+      throw new Error(`Error fetching waveform: ${response.statusText}`);
+    }
+    const bytes = new Int8Array(await response.arrayBuffer());
+    const sampleRate = Number(response.headers.get("X-Waveform-Sample-Rate"));
+    const sampleCount = Number(response.headers.get("X-Waveform-Sample-Count"));
+    return {
+      // Interleaved min/max pairs, which WaveSurfer draws as they are
+      peaks: Float32Array.from(bytes, (value) => value / 128),
+      duration: sampleCount / sampleRate,
+    };
+  } catch (error) {
+    console.error(error);
+    return null;
+  }
+}
+
+// Full-text search over transcripts, Whisper output, tags and fields
+export async function searchAudioFiles(query, limit = 20) {
+  try {
+    const params = new URLSearchParams({ q: query, limit });
+    const response = await fetch(`http://localhost:8080/api/search?${params}`);
+    if (!response.ok) {
+      throw new Error(`Error searching audio files: ${response.statusText}`);
+    }
+    return (await response.json()).results;
+  } catch (error) {
+    console.error(error);
+    return [];
+  }
+}
+
 // Rename an audio file
 export async function renameAudioFile(id, newName) {
   try {
@@ -31,8 +138,9 @@ export async function renameAudioFile(id, newName) {
   }
 }
 
-// Process an audio file
-export async function processAudio(params) {
+// Process an audio file: queue a job, then follow it until it finishes.
+// onProgress receives the job with percent, speed and etaSeconds as FFmpeg reports them
+export async function processAudio(params, onProgress = () => {}) {
   try {
     const response = await fetch(`${API_BASE_URL}/process`, {
       method: "POST",
@@ -45,7 +153,8 @@ export async function processAudio(params) {
       throw new Error(error.error || "Audio processing failed.");
     }
 
-    const data = await response.json(); // Parse the JSON response
+    const { jobId } = await response.json();
+    const data = await followProcessingJob(jobId, onProgress);
     console.log("Processed file URL:", data.url);
     return data.url; // Extract the URL
   } catch (error) {
@@ -54,6 +163,70 @@ export async function processAudio(params) {
   }
 }
 
+// Follow a processing job's event stream; falls back to polling if the stream fails
+function followProcessingJob(jobId, onProgress) {
+  return new Promise((resolve, reject) => {
+    const source = new EventSource(`${API_BASE_URL}/jobs/${jobId}/events`);
+    source.addEventListener("progress", (event) => onProgress(JSON.parse(event.data)));
+    source.addEventListener("done", (event) => {
+      source.close();
+      resolve(JSON.parse(event.data));
+    });
+    source.addEventListener("failed", (event) => {
+      source.close();
+      reject(new Error(JSON.parse(event.data).error || "Audio processing failed."));
+    });
+    source.onerror = () => {
+      // EventSource would retry forever on its own; a closed stream means the job is over or gone
+      source.close();
+      waitForProcessingJob(jobId).then(resolve, reject);
+    };
+  });
+}
+
+// Poll a processing job until it is done or failed
+async function waitForProcessingJob(jobId, intervalMs = 500) {
+  for (;;) {
+    const response = await fetch(`${API_BASE_URL}/jobs/${jobId}`);
+    if (!response.ok) {
+      throw new Error(`Error fetching job ${jobId}: ${response.statusText}`);
+    }
+
+    const job = await response.json();
+    if (job.status === "DONE") {
+      return job;
+    }
+    if (job.status === "FAILED") {
+      throw new Error(job.error || "Audio processing failed.");
+    }
+    await new Promise((resolve) => setTimeout(resolve, intervalMs));
+  }
+}
+
+// Ask the server for a preview ID; only whoever holds it can start or cancel previews under it
+export async function createPreview() {
+  const response = await fetch(`${API_BASE_URL}/preview`, { method: "POST" });
+  if (!response.ok) {
+    throw new Error(`Error creating preview: ${response.statusText}`);
+  }
+  return (await response.json()).previewId;
+}
+
+// Build the URL of a streaming preview; FFmpeg output is streamed as it renders
+export function previewAudioUrl(params, previewId) {
+  const query = new URLSearchParams({ ...params, previewId });
+  return `${API_BASE_URL}/preview?${query}`;
+}
+
+// Stop a running preview on the server
+export async function cancelPreview(previewId) {
+  try {
+    await fetch(`${API_BASE_URL}/preview/${previewId}`, { method: "DELETE" });
+  } catch (error) {
+    console.error("Error cancelling preview:", error);
+  }
+}
+
 export async function saveTranscription({ fileName, from, to, text }) {
   const response = await fetch("/api/transcription/save", {
     method: "POST",
@@ -1,5 +1,10 @@
 import { LitElement, html, css } from "lit";
-import { processAudio } from "./../api";
+import {
+  processAudio,
+  createPreview,
+  previewAudioUrl,
+  cancelPreview,
+} from "./../api";
 
 class AudioTuner extends LitElement {
   static properties = {
@@ -10,7 +15,10 @@ class AudioTuner extends LitElement {
     filterFrequency: { type: Number },
     filterBandwidth: { type: Number },
     processingType: { type: String },
+    engine: { type: String },
     filePath: { type: String },
+    processing: { type: Boolean },
+    progress: { type: String },
   };
 
   static styles = css`
@@ -59,6 +67,11 @@ class AudioTuner extends LitElement {
     button:disabled {
       background-color: #ccc;
     }
+
+    .progress {
+      font-size: 0.9rem;
+      color: #333;
+    }
   `;
 
   constructor() {
@@ -66,13 +79,66 @@ class AudioTuner extends LitElement {
     this.pitchFactor = 1.0;
     this.amplificationFactor = 1.0;
     this.compressionThreshold = -20;
-    this.compressionRatio = 2.0;
+    // A ratio of 1 leaves compression off until the user raises it
+    this.compressionRatio = 1.0;
     this.filterFrequency = 1000;
     this.filterBandwidth = 200;
     this.processingType = "pitch";
+    this.engine = "ffmpeg";
+    this.previewId = null;
+    this.previewIdIssuedAt = 0;
+    this.previewing = false;
+    this.processing = false;
+    this.progress = "";
+  }
+
+  // Play the processed audio while the server is still rendering it
+  async previewAudioFile() {
+    const params = {
+      filePath: this.filePath,
+      pitchFactor: this.pitchFactor,
+      amplificationFactor: this.amplificationFactor,
+      compressionThreshold: this.compressionThreshold,
+      compressionRatio: this.compressionRatio,
+      filterFrequency: this.filterFrequency,
+      filterBandwidth: this.filterBandwidth,
+    };
+    const audioPlayer = document.querySelector("unified-audio-player");
+    if (audioPlayer) {
+      // Reusing the ID replaces the running preview on the server instead of starting another.
+      // The server forgets IDs idle for an hour, so take a new one well before that
+      if (!this.previewId || Date.now() - this.previewIdIssuedAt > 30 * 60 * 1000) {
+        try {
+          this.previewId = await createPreview();
+          this.previewIdIssuedAt = Date.now();
+        } catch (error) {
+          console.error(error);
+          return;
+        }
+      }
+      audioPlayer.pauseAudio();
+      audioPlayer.playPreview(previewAudioUrl(params, this.previewId));
+      this.previewing = true;
+    }
+  }
+
+  // Any slider change makes a running preview stale
+  stopPreview() {
+    if (!this.previewing) {
+      return;
+    }
+    this.previewing = false;
+    document.querySelector("unified-audio-player")?.stopPreview();
+    cancelPreview(this.previewId);
   }
 
   async processAudioFile() {
+    // One render at a time; a second click would only queue the same work again
+    if (this.processing) {
+      return;
+    }
+    this.processing = true;
+    this.progress = "Queued";
     try {
       console.log("Processing audio with params:", {
         type: this.processingType,
@@ -83,6 +149,7 @@ class AudioTuner extends LitElement {
         compressionRatio: this.compressionRatio,
         filterFrequency: this.filterFrequency,
         filterBandwidth: this.filterBandwidth,
+        engine: this.engine,
       });
 
       const params = {
@@ -94,6 +161,7 @@ class AudioTuner extends LitElement {
         compressionRatio: this.compressionRatio,
         filterFrequency: this.filterFrequency,
         filterBandwidth: this.filterBandwidth,
+        engine: this.engine,
       };
       // Stop playback if in progress
       const audioPlayer = document.querySelector("unified-audio-player");
@@ -101,7 +169,9 @@ class AudioTuner extends LitElement {
         audioPlayer.pauseAudio(); // Assuming pauseAudio() exists
       }
 
-      const response = await processAudio(params);
+      const response = await processAudio(params, (job) => {
+        this.progress = this.describeProgress(job);
+      });
       const newFilePath = await response;
 
       console.log("Dispatching file-processed event with:", { newFilePath });
@@ -115,12 +185,32 @@ class AudioTuner extends LitElement {
     } catch (error) {
       console.error("Error processing audio:", error);
       alert("Error processing audio. Please check the logs.");
+    } finally {
+      this.processing = false;
+      this.progress = "";
     }
   }
 
+  describeProgress(job) {
+    if (job.status === "QUEUED") {
+      return "Queued";
+    }
+    if (job.percent == null) {
+      return "Processing…";
+    }
+    let text = `Processing ${Math.floor(job.percent)}%`;
+    if (job.speed) {
+      text += ` at ${job.speed.toFixed(1)}x`;
+    }
+    if (job.etaSeconds != null) {
+      text += `, about ${job.etaSeconds} s left`;
+    }
+    return text;
+  }
+
   render() {
     return html`
-      <div class="tuner-container">
+      <div class="tuner-container" @input="${this.stopPreview}">
         <div class="slider-container">
           <label>Pitch Adjustment</label>
           <input
@@ -189,7 +279,7 @@ class AudioTuner extends LitElement {
         </div>
 
         <div class="slider-container">
-          <label>Compression Ratio</label>
+          <label>Compression Ratio (1 = off)</label>
           <input
             type="range"
             min="1"
@@ -257,7 +347,27 @@ class AudioTuner extends LitElement {
           />
         </div>
 
-        <button @click="${this.processAudioFile}">Process Audio</button>
+        <div class="slider-container">
+          <label>Engine</label>
+          <select
+            .value="${this.engine}"
+            @change="${(e) => (this.engine = e.target.value)}"
+          >
+            <option value="ffmpeg">FFmpeg</option>
+            <option value="jvm">In-JVM DSP</option>
+          </select>
+        </div>
+
+        <button @click="${this.previewAudioFile}">Preview</button>
+        <button
+          @click="${this.processAudioFile}"
+          ?disabled="${this.processing}"
+        >
+          Process Audio
+        </button>
+        ${this.processing
+          ? html`<span class="progress">${this.progress}</span>`
+          : ""}
       </div>
     `;
   }
@@ -1,5 +1,5 @@
 import { LitElement, html, css } from "lit";
-import { fetchAudioFiles } from "./../api.js";
+import { fetchAudioFiles, fetchTranscriptions } from "./../api.js";
 
 class CategorizedFileList extends LitElement {
   static properties = {
@@ -65,26 +65,18 @@ class CategorizedFileList extends LitElement {
     this.newAudioFiles = [];
   }
 
-  async fetchTranscription(fileName) {
-    try {
-      const response = await fetch(
-        `http://localhost:8080/api/transcriptions/${encodeURIComponent(fileName)}`,
-      );
-      if (!response.ok) {
-        console.warn(`Failed to fetch transcription for ${fileName}`);
-        return { from: "", to: "" };
-      }
-      return await response.json();
-    } catch (error) {
-      console.error(`Error fetching transcription for ${fileName}:`, error);
-      return { from: "", to: "" };
-    }
-  }
-
   async refreshFiles() {
     try {
       const audioFiles = await fetchAudioFiles();
 
+      // One batch request for the FROM/TO values of every categorized file
+      const transcriptions = await fetchTranscriptions(
+        audioFiles.filter((file) => file.tag || file.field).map((file) => file.name),
+      );
+      const transcriptionsByName = new Map(
+        transcriptions.map((transcription) => [transcription.fileName, transcription]),
+      );
+
       const categorizedFiles = {};
       const newAudioFiles = [];
 
@@ -95,8 +87,7 @@ class CategorizedFileList extends LitElement {
           continue;
         }
 
-        // Fetch transcription data to get `FROM` and `TO` values
-        const transcriptionData = await this.fetchTranscription(file.name);
+        const transcriptionData = transcriptionsByName.get(file.name) || {};
         file.from = transcriptionData.from || "";
         file.to = transcriptionData.to || "";
 
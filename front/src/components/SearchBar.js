@@ -1,9 +1,10 @@
 import { LitElement, html, css } from "lit";
+import { searchAudioFiles } from "./../api.js";
 
 class SearchBar extends LitElement {
   static properties = {
     placeholder: { type: String },
-    onSearch: { type: Function },
+    results: { type: Array },
   };
 
   static styles = css`
@@ -15,16 +16,59 @@ class SearchBar extends LitElement {
       border-radius: 4px;
       box-shadow: 0px 2px 4px rgba(0, 0, 0, 0.1);
     }
+
+    .results {
+      list-style: none;
+      margin: 4px 0 0;
+      padding: 0;
+      border: 1px solid #ddd;
+      border-radius: 4px;
+      background-color: #fff;
+    }
+
+    .result {
+      padding: 6px 10px;
+      cursor: pointer;
+    }
+
+    .result:hover {
+      background-color: #f0f4ff;
+    }
+
+    .category {
+      color: #777;
+      font-size: 0.85rem;
+      margin-left: 6px;
+    }
   `;
 
   constructor() {
     super();
     this.placeholder = "Search audio files...";
-    this.onSearch = () => {};
+    this.results = [];
+    this.searchTimer = null;
+    this.searchSeq = 0;
   }
 
+  // Search once typing pauses; answers to older queries are dropped
   handleInput(event) {
-    this.onSearch(event.target.value);
+    const query = event.target.value.trim();
+    clearTimeout(this.searchTimer);
+    const seq = ++this.searchSeq;
+    if (!query) {
+      this.results = [];
+      return;
+    }
+    this.searchTimer = setTimeout(async () => {
+      const results = await searchAudioFiles(query);
+      if (seq === this.searchSeq) {
+        this.results = results;
+      }
+    }, 250);
+  }
+
+  selectResult(result) {
+    this.dispatchEvent(new CustomEvent("file-selected", { detail: result }));
   }
 
   render() {
@@ -35,6 +79,22 @@ class SearchBar extends LitElement {
         placeholder="${this.placeholder}"
         @input="${this.handleInput}"
       />
+      ${this.results.length > 0
+        ? html`
+            <ul class="results">
+              ${this.results.map(
+                (result) => html`
+                  <li class="result" @click="${() => this.selectResult(result)}">
+                    ${result.name}
+                    <span class="category">
+                      ${[result.tag, result.field].filter(Boolean).join(" / ")}
+                    </span>
+                  </li>
+                `,
+              )}
+            </ul>
+          `
+        : ""}
     `;
   }
 }
@@ -2,6 +2,10 @@ import WaveSurfer from "wavesurfer.js";
 import "./AudioTuner.js";
 import "./TranscriptionSection.js";
 import { LitElement, html, css } from "lit";
+import { fetchTranscriptSegments, fetchWaveform } from "../api.js";
+
+// Captions are fetched a window at a time instead of as one whole transcript
+const CAPTION_WINDOW_MS = 60000;
 
 class UnifiedAudioPlayer extends LitElement {
   static properties = {
@@ -12,6 +16,7 @@ class UnifiedAudioPlayer extends LitElement {
     startPoint: { type: Number },
     endPoint: { type: Number },
     showAudioTuner: { type: Boolean },
+    caption: { type: String },
   };
 
   static styles = css`
@@ -24,6 +29,12 @@ class UnifiedAudioPlayer extends LitElement {
       border-radius: 5px;
       background-color: #f9f9f9;
     }
+    .caption {
+      min-height: 1.5em;
+      margin-bottom: 10px;
+      font-style: italic;
+      text-align: center;
+    }
     .waveform-container {
       width: 100%;
       height: 100px;
@@ -101,6 +112,8 @@ class UnifiedAudioPlayer extends LitElement {
     this.endPoint = null;
     this.waveSurfer = null;
     this.showAudioTuner = false;
+    this.caption = "";
+    this.captionWindow = null;
     this.handleKeyPress = this.handleKeyPress.bind(this);
   }
 
@@ -147,7 +160,6 @@ class UnifiedAudioPlayer extends LitElement {
       container: this.shadowRoot.querySelector(".waveform-container"),
       waveColor: "#757575",
       progressColor: "#007bff",
-      backend: "WebAudio",
     });
 
     if (this.src) {
@@ -169,6 +181,46 @@ class UnifiedAudioPlayer extends LitElement {
       this.endPoint = this.waveSurfer.getDuration();
       this.requestUpdate();
     });
+
+    this.waveSurfer.on("timeupdate", (currentTime) =>
+      this.updateCaption(currentTime),
+    );
+  }
+
+  async updateCaption(currentTime) {
+    const ms = Math.floor(currentTime * 1000);
+    const loaded = this.captionWindow;
+    if (
+      !loaded ||
+      loaded.src !== this.src ||
+      ms < loaded.fromMs ||
+      ms >= loaded.toMs
+    ) {
+      if (this.captionLoading) {
+        return;
+      }
+      this.captionLoading = true;
+      const src = this.src;
+      const segments = await fetchTranscriptSegments(
+        decodeURIComponent(this.getOriginalFileName()),
+        ms,
+        ms + CAPTION_WINDOW_MS,
+      );
+      this.captionLoading = false;
+      if (src !== this.src) {
+        return;
+      }
+      this.captionWindow = {
+        src,
+        fromMs: ms,
+        toMs: ms + CAPTION_WINDOW_MS,
+        segments,
+      };
+    }
+    this.caption = this.captionWindow.segments
+      .filter((segment) => segment.startMs <= ms && segment.endMs > ms)
+      .map((segment) => segment.text)
+      .join(" ");
   }
 
   handleFileProcessed(event) {
@@ -194,8 +246,19 @@ class UnifiedAudioPlayer extends LitElement {
     }
   }
 
-  loadAudio() {
-    this.waveSurfer.load(this.src);
+  // With precomputed peaks the media element streams the audio instead of
+  // downloading and decoding all of it before anything is drawn
+  async loadAudio() {
+    const src = this.src;
+    const waveform = await fetchWaveform(src);
+    if (src !== this.src) {
+      return;
+    }
+    if (waveform) {
+      this.waveSurfer.load(src, [waveform.peaks], waveform.duration);
+    } else {
+      this.waveSurfer.load(src);
+    }
     this.waveSurfer.on("ready", () => {
       this.endPoint = this.waveSurfer.getDuration();
       this.requestUpdate();
@@ -212,7 +275,24 @@ class UnifiedAudioPlayer extends LitElement {
     console.log(`Updating file source to: ${newSrc}`);
     this.src = newSrc;
     this.waveSurfer.empty();
-    this.waveSurfer.load(this.src);
+    this.loadAudio();
+  }
+
+  // Previews stream progressively, so play them through a plain audio element
+  // instead of WaveSurfer, which has to download and decode the whole file first
+  playPreview(url) {
+    this.stopPreview();
+    this.previewAudio = new Audio(url);
+    this.previewAudio.play();
+  }
+
+  stopPreview() {
+    if (this.previewAudio) {
+      this.previewAudio.pause();
+      this.previewAudio.removeAttribute("src");
+      this.previewAudio.load();
+      this.previewAudio = null;
+    }
   }
 
   playAudio() {
@@ -302,6 +382,7 @@ class UnifiedAudioPlayer extends LitElement {
         <div class="file-name-container">
           <span>${this.getFileName()}</span>
         </div>
+        <div class="caption">${this.caption}</div>
         <div class="waveform-container">
           <div
             class="waveform-overlay"
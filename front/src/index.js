@@ -156,7 +156,8 @@ class App extends LitElement {
     const backendBaseUrl = "http://localhost:8080";
     this.selectedFile = {
       ...file,
-      url: `${backendBaseUrl}/${decodeURIComponent(file.fileName || file.name)}`, // Ensure proper URL formatting
+      // Range-aware endpoint, so seeking only downloads the requested bytes
+      url: `${backendBaseUrl}/api/audio/stream/${encodeURIComponent(decodeURIComponent(file.fileName || file.name))}`,
     };
   }
 
@@ -177,7 +178,7 @@ class App extends LitElement {
           <div class="left-container">
             <div class="search-container">
               <search-bar
-                @search="${(e) => this.handleSearch(e.detail)}"
+                @file-selected="${(e) => this.handleFileSelection(e.detail)}"
               ></search-bar>
             </div>
             <div class="file-lists-container">